@@ -0,0 +1,26 @@
+package com.viniciusvr.edespensa.application.dto;
+
+/**
+ * DTO for a change event pushed to live clients. {@code itemId} is the pantry item or shopping list item
+ * the event is about; product fields and quantity are filled when known, {@code alertType} only for
+ * alert events (EXPIRED, EXPIRING_SOON or LOW_STOCK, as on the dashboard). A LOW_STOCK alert is about
+ * the product's stock over all its items: it has no {@code itemId} and carries the total quantity.
+ */
+public record ChangeEventDto(
+    Type type,
+    Long itemId,
+    Long productId,
+    String productName,
+    Double quantity,
+    String alertType
+) {
+    public enum Type {
+        ITEM_CONSUMED,
+        ITEM_DEPLETED,
+        ITEM_DISCARDED,
+        SHOPPING_ITEM_ADDED,
+        SHOPPING_ITEM_PURCHASED,
+        ALERT_ENTERED,
+        ALERT_LEFT
+    }
+}
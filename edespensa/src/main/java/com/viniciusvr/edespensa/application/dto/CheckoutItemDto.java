@@ -0,0 +1,14 @@
+package com.viniciusvr.edespensa.application.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for one shopping list item being checked out into the pantry.
+ * Null fields fall back to the shopping list item (quantity) or stay empty.
+ */
+public record CheckoutItemDto(
+    Long shoppingListItemId,
+    Double quantity,
+    LocalDate expirationDate,
+    String location
+) {}
@@ -0,0 +1,31 @@
+package com.viniciusvr.edespensa.application.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for the stock of a product summed over its pantry items. {@code earliestExpiration} is the
+ * first expiration date among the items, null when none of them expires. The reorder quantities are
+ * the ones in effect, defaults included.
+ */
+public record ProductStockDto(
+    Long productId,
+    String productName,
+    String unit,
+    Double totalQuantity,
+    int itemCount,
+    LocalDate earliestExpiration,
+    double minimumQuantity,
+    double targetQuantity
+) {
+    public boolean isLowStock() {
+        return totalQuantity <= minimumQuantity;
+    }
+
+    /**
+     * What brings the stock back to the target quantity; zero when it is already there.
+     */
+    public double missingQuantity() {
+        return Math.max(0, BigDecimal.valueOf(targetQuantity).subtract(BigDecimal.valueOf(totalQuantity)).doubleValue());
+    }
+}
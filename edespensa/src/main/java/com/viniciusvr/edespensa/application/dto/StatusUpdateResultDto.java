@@ -0,0 +1,25 @@
+package com.viniciusvr.edespensa.application.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a batch status transition.
+ */
+public record StatusUpdateResultDto(
+    List<Long> updatedIds,
+    List<Long> notPendingIds,
+    List<Long> notFoundIds,
+    String message
+) {
+    public static StatusUpdateResultDto of(List<Long> updatedIds, List<Long> notPendingIds,
+                                           List<Long> notFoundIds, String status) {
+        String msg = updatedIds.size() + " item(s) marked as " + status + ".";
+        if (!notPendingIds.isEmpty()) {
+            msg += " Not pending: " + notPendingIds.size() + " item(s).";
+        }
+        if (!notFoundIds.isEmpty()) {
+            msg += " Not found: " + notFoundIds.size() + " item(s).";
+        }
+        return new StatusUpdateResultDto(updatedIds, notPendingIds, notFoundIds, msg);
+    }
+}
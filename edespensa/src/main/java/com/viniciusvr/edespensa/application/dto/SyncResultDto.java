@@ -0,0 +1,25 @@
+package com.viniciusvr.edespensa.application.dto;
+
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+
+import java.util.List;
+
+/**
+ * DTO for one delta sync response: current state of the entities changed since the client's cursor,
+ * ids of the deleted ones, and the cursor to send next time.
+ * When {@code reset} is set the client's cursor could not be served and the changes start from scratch.
+ */
+public record SyncResultDto(
+    long cursor,
+    boolean reset,
+    boolean hasMore,
+    List<Product> products,
+    List<Long> deletedProductIds,
+    List<PantryItem> pantryItems,
+    List<Long> deletedPantryItemIds,
+    List<ShoppingListItem> shoppingListItems,
+    List<Long> deletedShoppingListItemIds
+) {
+}
@@ -0,0 +1,53 @@
+package com.viniciusvr.edespensa.application.usecase;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters of the pantry, the product catalog and the shopping list, bumped by the use cases
+ * on every change. Readers can tell whether anything changed without touching the repositories.
+ * Counters restart with the application, so tags also carry the start time.
+ */
+public class AggregateVersions {
+
+    public enum Aggregate {
+        PANTRY,
+        CATALOG,
+        SHOPPING_LIST
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray versions = new AtomicLongArray(Aggregate.values().length);
+
+    /**
+     * Records a change of the given aggregates.
+     */
+    public void changed(Aggregate... aggregates) {
+        apply(() -> {
+            for (Aggregate aggregate : aggregates) {
+                versions.incrementAndGet(aggregate.ordinal());
+            }
+        });
+    }
+
+    public long get(Aggregate aggregate) {
+        return versions.get(aggregate.ordinal());
+    }
+
+    /**
+     * Tag that changes whenever one of the given aggregates does, e.g. for an ETag.
+     */
+    public String tag(Aggregate... aggregates) {
+        StringBuilder tag = new StringBuilder(epoch);
+        for (Aggregate aggregate : aggregates) {
+            tag.append('-').append(get(aggregate));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Applies a counter change. Runs it right away; subclasses may defer it.
+     */
+    protected void apply(Runnable change) {
+        change.run();
+    }
+}
@@ -0,0 +1,168 @@
+package com.viniciusvr.edespensa.application.usecase;
+
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto;
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto.Type;
+import com.viniciusvr.edespensa.application.dto.ProductStockDto;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.repository.DeletedPantryItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Change events published by the use cases for live clients: pantry items consumed, depleted or
+ * discarded, shopping list items added or purchased, and pantry items or products entering or leaving an alert.
+ * Listeners get the events of one change together, on the publishing thread, and must only hand them off.
+ * Alerts that start because a day passed are not announced; clients see them on their next alert read.
+ */
+public class ChangeEvents {
+
+    private final int expiringSoonDays;
+    private final List<Consumer<List<ChangeEventDto>>> listeners = new CopyOnWriteArrayList<>();
+
+    public ChangeEvents(int expiringSoonDays) {
+        this.expiringSoonDays = expiringSoonDays;
+    }
+
+    public void addListener(Consumer<List<ChangeEventDto>> listener) {
+        listeners.add(listener);
+    }
+
+    public void itemsConsumed(Collection<PantryItem> items) {
+        publish(items.stream().map(item -> pantryEvent(Type.ITEM_CONSUMED, item, null)).toList());
+    }
+
+    public void itemsDepleted(Collection<PantryItem> items) {
+        publish(items.stream().map(item -> pantryEvent(Type.ITEM_DEPLETED, item, null)).toList());
+    }
+
+    /**
+     * @param productsById product of each discarded pantry item, by pantry item id
+     */
+    public void itemsDiscarded(Map<Long, DeletedPantryItem> productsById) {
+        List<ChangeEventDto> events = new ArrayList<>(productsById.size());
+        productsById.forEach((id, product) -> events.add(new ChangeEventDto(
+                Type.ITEM_DISCARDED, id, product.productId(), product.productName(), null, null)));
+        publish(events);
+    }
+
+    public void shoppingItemsAdded(Collection<ShoppingListItem> items) {
+        List<ChangeEventDto> events = new ArrayList<>(items.size());
+        for (ShoppingListItem item : items) {
+            events.add(new ChangeEventDto(Type.SHOPPING_ITEM_ADDED, item.getId(), item.getProduct().getId(),
+                    item.getProduct().getName(), item.getQuantity(), null));
+        }
+        publish(events);
+    }
+
+    public void shoppingItemsPurchased(Collection<Long> ids) {
+        List<ChangeEventDto> events = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            events.add(new ChangeEventDto(Type.SHOPPING_ITEM_PURCHASED, id, null, null, null, null));
+        }
+        publish(events);
+    }
+
+    /**
+     * Announces the alerts pantry items and the stock of their products entered or left between two
+     * states. An item or stock missing from the previous states did not exist before, one missing from
+     * the current states no longer exists.
+     * Called by the alert index once the change is applied, so the events go out right away.
+     */
+    public void alertStatesChanged(Collection<PantryItem> previousStates, Collection<PantryItem> currentStates,
+                                   Collection<ProductStockDto> previousStocks, Collection<ProductStockDto> currentStocks) {
+        Map<Long, PantryItem> previousById = new HashMap<>();
+        for (PantryItem previous : previousStates) {
+            previousById.put(previous.getId(), previous);
+        }
+        List<ChangeEventDto> events = new ArrayList<>();
+        for (PantryItem current : currentStates) {
+            addAlertTransitions(previousById.remove(current.getId()), current, events);
+        }
+        for (PantryItem previous : previousById.values()) {
+            addAlertTransitions(previous, null, events);
+        }
+        
+        Map<Long, ProductStockDto> previousByProductId = new HashMap<>();
+        for (ProductStockDto previous : previousStocks) {
+            previousByProductId.put(previous.productId(), previous);
+        }
+        for (ProductStockDto current : currentStocks) {
+            addLowStockTransition(previousByProductId.remove(current.productId()), current, events);
+        }
+        for (ProductStockDto previous : previousByProductId.values()) {
+            addLowStockTransition(previous, null, events);
+        }
+        deliver(events);
+    }
+
+    private void addAlertTransitions(PantryItem previous, PantryItem current, List<ChangeEventDto> events) {
+        List<String> before = alertTypes(previous);
+        List<String> after = alertTypes(current);
+        for (String alertType : before) {
+            if (!after.contains(alertType)) {
+                events.add(pantryEvent(Type.ALERT_LEFT, current != null ? current : previous, alertType));
+            }
+        }
+        for (String alertType : after) {
+            if (!before.contains(alertType)) {
+                events.add(pantryEvent(Type.ALERT_ENTERED, current, alertType));
+            }
+        }
+    }
+
+    private void addLowStockTransition(ProductStockDto previous, ProductStockDto current, List<ChangeEventDto> events) {
+        boolean before = previous != null && previous.isLowStock();
+        boolean after = current != null && current.isLowStock();
+        if (before && !after) {
+            events.add(stockEvent(Type.ALERT_LEFT, current != null ? current : previous));
+        } else if (!before && after) {
+            events.add(stockEvent(Type.ALERT_ENTERED, current));
+        }
+    }
+
+    /**
+     * Same rules as the dashboard alerts; low stock is a product alert, see {@link #addLowStockTransition}.
+     */
+    private List<String> alertTypes(PantryItem item) {
+        if (item == null) return List.of();
+        List<String> alertTypes = new ArrayList<>(2);
+        if (item.isExpired()) alertTypes.add("EXPIRED");
+        if (item.isExpiringSoon(expiringSoonDays)) alertTypes.add("EXPIRING_SOON");
+        return alertTypes;
+    }
+
+    private static ChangeEventDto pantryEvent(Type type, PantryItem item, String alertType) {
+        return new ChangeEventDto(type, item.getId(), item.getProduct().getId(), item.getProduct().getName(),
+                item.getQuantity(), alertType);
+    }
+
+    private static ChangeEventDto stockEvent(Type type, ProductStockDto stock) {
+        return new ChangeEventDto(type, null, stock.productId(), stock.productName(), stock.totalQuantity(), "LOW_STOCK");
+    }
+
+    private void publish(List<ChangeEventDto> events) {
+        if (events.isEmpty()) return;
+        apply(() -> deliver(events));
+    }
+
+    private void deliver(List<ChangeEventDto> events) {
+        if (events.isEmpty()) return;
+        for (Consumer<List<ChangeEventDto>> listener : listeners) {
+            listener.accept(events);
+        }
+    }
+
+    /**
+     * Sends published events. Runs right away; subclasses may defer it, e.g. until commit.
+     */
+    protected void apply(Runnable delivery) {
+        delivery.run();
+    }
+}
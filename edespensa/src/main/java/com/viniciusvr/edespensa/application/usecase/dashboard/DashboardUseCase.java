@@ -2,117 +2,178 @@ package com.viniciusvr.edespensa.application.usecase.dashboard;
 
 import com.viniciusvr.edespensa.application.dto.AlertItemDto;
 import com.viniciusvr.edespensa.application.dto.DashboardAlertsDto;
+import com.viniciusvr.edespensa.application.dto.ProductStockDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
 import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
 import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
 import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Use case for dashboard alerts and quick actions.
  */
 public class DashboardUseCase {
 
+    /**
+     * Suggested for a product whose stock already reaches its target, e.g. when an item of a full stock expires.
+     */
+    private static final double DEFAULT_SUGGESTED_QUANTITY = 1.0;
+
     private final int expiringSoonDays;
-    private final double lowStockThreshold;
 
     private final PantryItemRepository pantryItemRepository;
     private final ShoppingListItemRepository shoppingListRepository;
+    private final PantryAlertIndex alertIndex;
+    private final AggregateVersions versions;
+    private final ChangeEvents events;
 
     public DashboardUseCase(PantryItemRepository pantryItemRepository, 
                            ShoppingListItemRepository shoppingListRepository,
-                           int expiringSoonDays,
-                           double lowStockThreshold) {
+                           PantryAlertIndex alertIndex,
+                           AggregateVersions versions,
+                           ChangeEvents events,
+                           int expiringSoonDays) {
         this.pantryItemRepository = pantryItemRepository;
         this.shoppingListRepository = shoppingListRepository;
+        this.alertIndex = alertIndex;
+        this.versions = versions;
+        this.events = events;
         this.expiringSoonDays = expiringSoonDays;
-        this.lowStockThreshold = lowStockThreshold;
     }
 
     /**
      * Get all dashboard alerts for products that need attention.
+     * Served from the alert index, so the cost grows with the number of alerts only.
+     * Low stock is judged on a product's total over all its items against the product's own minimum,
+     * one alert per product.
      */
     public DashboardAlertsDto getAlerts() {
-        List<PantryItem> allItems = pantryItemRepository.findAll();
+        LocalDate today = LocalDate.now();
         
         List<AlertItemDto> expiringSoon = new ArrayList<>();
         List<AlertItemDto> expired = new ArrayList<>();
         List<AlertItemDto> lowStock = new ArrayList<>();
         
-        for (PantryItem item : allItems) {
-            if (item.isExpired()) {
-                expired.add(createAlertItem(item, "EXPIRED", "Product has expired"));
-            } else if (item.isExpiringSoon(expiringSoonDays)) {
-                expiringSoon.add(createAlertItem(item, "EXPIRING_SOON", 
-                    "Expires in " + calculateDaysUntilExpiration(item) + " days"));
-            }
-            
-            if (item.isLowStock(lowStockThreshold)) {
-                lowStock.add(createAlertItem(item, "LOW_STOCK", "Low stock - only " + item.getQuantity() + " left"));
-            }
+        for (PantryItem item : alertIndex.findExpired(today)) {
+            expired.add(createAlertItem(item, "EXPIRED", "Product has expired"));
+        }
+        
+        for (PantryItem item : alertIndex.findExpiringSoon(today, expiringSoonDays)) {
+            expiringSoon.add(createAlertItem(item, "EXPIRING_SOON", 
+                "Expires in " + calculateDaysUntilExpiration(item) + " days"));
+        }
+        
+        for (ProductStockDto stock : alertIndex.findLowStock()) {
+            lowStock.add(new AlertItemDto(
+                // Names the item used first, so the alert can still be picked by item id; none once it ran out
+                alertIndex.findFirstExpiringItemId(stock.productId()),
+                stock.productId(),
+                stock.productName(),
+                stock.totalQuantity(),
+                stock.unit(),
+                stock.earliestExpiration(),
+                "LOW_STOCK",
+                "Low stock - only " + stock.totalQuantity() + " left"
+            ));
         }
         
         return DashboardAlertsDto.of(expiringSoon, expired, lowStock);
     }
 
     /**
-     * Add all expiring and low stock items to shopping list.
+     * Add all expiring and low stock items to shopping list, each with what brings its product back to
+     * its target quantity. The new items are inserted in one batch.
      */
     public int addAlertsToShoppingList() {
+        versions.changed(Aggregate.SHOPPING_LIST);
         DashboardAlertsDto alerts = getAlerts();
-        int addedCount = 0;
+        Map<Long, ShoppingListItem> candidates = new LinkedHashMap<>();
         
         // Add expiring soon items
         for (AlertItemDto alert : alerts.expiringSoon()) {
-            if (!shoppingListRepository.existsPendingByProductId(alert.productId())) {
-                ShoppingListItem item = ShoppingListItem.createAutoAdded(
-                    createProductFromAlert(alert), 
-                    1.0, 
-                    "Added automatically - expiring soon"
-                );
-                shoppingListRepository.save(item);
-                addedCount++;
-            }
+            candidates.computeIfAbsent(alert.productId(), productId -> ShoppingListItem.createAutoAdded(
+                createProductFromAlert(alert), 
+                suggestedQuantity(productId), 
+                "Added automatically - expiring soon"
+            ));
         }
         
         // Add low stock items
         for (AlertItemDto alert : alerts.lowStock()) {
-            if (!shoppingListRepository.existsPendingByProductId(alert.productId())) {
-                ShoppingListItem item = ShoppingListItem.createAutoAdded(
-                    createProductFromAlert(alert), 
-                    1.0, 
-                    "Added automatically - low stock"
-                );
-                shoppingListRepository.save(item);
-                addedCount++;
-            }
+            candidates.computeIfAbsent(alert.productId(), productId -> ShoppingListItem.createAutoAdded(
+                createProductFromAlert(alert), 
+                suggestedQuantity(productId), 
+                "Added automatically - low stock"
+            ));
         }
         
-        return addedCount;
+        return addMissingToShoppingList(candidates);
     }
 
     /**
      * Add specific alert items to shopping list.
      */
     public int addSelectedAlertsToShoppingList(List<Long> pantryItemIds) {
-        int addedCount = 0;
+        return addSelectedAlertsToShoppingList(List.of(pantryItemIds).iterator());
+    }
+
+    /**
+     * Add alert items whose ids arrive in chunks to the shopping list, one lookup and insert per chunk.
+     */
+    public int addSelectedAlertsToShoppingList(Iterator<List<Long>> idChunks) {
+        versions.changed(Aggregate.SHOPPING_LIST);
+        int itemsAdded = 0;
+        while (idChunks.hasNext()) {
+            itemsAdded += addSelectedChunk(idChunks.next());
+        }
+        return itemsAdded;
+    }
+
+    private int addSelectedChunk(List<Long> pantryItemIds) {
+        Map<Long, ShoppingListItem> candidates = new LinkedHashMap<>();
         
-        for (Long pantryItemId : pantryItemIds) {
-            PantryItem item = pantryItemRepository.findById(pantryItemId).orElse(null);
-            if (item != null && !shoppingListRepository.existsPendingByProductId(item.getProduct().getId())) {
-                ShoppingListItem shoppingItem = ShoppingListItem.createAutoAdded(
-                    item.getProduct(), 
-                    1.0, 
-                    "Added from dashboard alerts"
-                );
-                shoppingListRepository.save(shoppingItem);
-                addedCount++;
-            }
+        for (PantryItem item : pantryItemRepository.findAllById(pantryItemIds)) {
+            candidates.computeIfAbsent(item.getProduct().getId(), productId -> ShoppingListItem.createAutoAdded(
+                item.getProduct(), 
+                suggestedQuantity(productId), 
+                "Added from dashboard alerts"
+            ));
         }
         
-        return addedCount;
+        return addMissingToShoppingList(candidates);
+    }
+
+    /**
+     * Inserts the candidates whose product has no pending shopping list item yet, with one batch and no
+     * prior lookup; the database keeps a concurrent add from duplicating a product's pending item.
+     */
+    private int addMissingToShoppingList(Map<Long, ShoppingListItem> candidatesByProductId) {
+        if (candidatesByProductId.isEmpty()) return 0;
+        
+        List<ShoppingListItem> newItems = shoppingListRepository.insertPendingIfAbsent(
+                new ArrayList<>(candidatesByProductId.values()));
+        if (!newItems.isEmpty()) {
+            events.shoppingItemsAdded(newItems);
+        }
+        return newItems.size();
+    }
+
+    /**
+     * Target quantity minus the product's current stock, read from the alert index.
+     */
+    private double suggestedQuantity(Long productId) {
+        ProductStockDto stock = alertIndex.findStock(productId);
+        double missing = stock != null ? stock.missingQuantity() : 0;
+        return missing > 0 ? missing : DEFAULT_SUGGESTED_QUANTITY;
     }
 
     private AlertItemDto createAlertItem(PantryItem item, String alertType, String message) {
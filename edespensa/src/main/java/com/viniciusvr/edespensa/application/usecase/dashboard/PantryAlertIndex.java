@@ -0,0 +1,445 @@
+package com.viniciusvr.edespensa.application.usecase.dashboard;
+
+import com.viniciusvr.edespensa.application.dto.ProductStockDto;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory index of pantry items ordered by expiration date, and of products ordered by how far their
+ * stock is above their minimum quantity.
+ * Kept up to date by the pantry use cases so dashboard alerts are answered
+ * in time proportional to the number of alerts instead of the pantry size.
+ * As it sees every item's state before and after each change, it also reports alert transitions;
+ * a product's stock is adjusted by that difference, never summed again over its items.
+ * A product with a minimum quantity of its own keeps its stock entry, at zero, when it has no items:
+ * it is wanted in the pantry, so running out of it is low stock rather than leaving the alerts.
+ * Changes may arrive out of order, so an item state older than the indexed one, or one of an item
+ * already removed, is dropped instead of applied.
+ */
+public class PantryAlertIndex {
+
+    /**
+     * Removed item ids remembered. A late state of a removed item comes from a transaction that
+     * committed just before the removal, so only the most recent removals need to be kept.
+     */
+    private static final int REMOVED_IDS_KEPT = 10_000;
+
+    private final PantryItemRepository pantryItemRepository;
+    private final ProductRepository productRepository;
+    private final ChangeEvents events;
+    private final double defaultMinimumQuantity;
+
+    private final Map<Long, PantryItem> items = new HashMap<>();
+    private final Map<Long, Set<Long>> itemsByProduct = new HashMap<>();
+    private final NavigableMap<LocalDate, Set<Long>> itemsByExpiration = new TreeMap<>();
+    private final NavigableMap<Long, Stock> stockByProduct = new TreeMap<>();
+    // Keyed by stock minus minimum quantity: low stock products are the ones at or below zero
+    private final NavigableMap<Double, Set<Long>> productsByStock = new TreeMap<>();
+    // Ids are never reused, so any state of a removed item that arrives later is stale, whatever its version
+    private final Set<Long> removedItemIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > REMOVED_IDS_KEPT;
+        }
+    });
+
+    /**
+     * Running totals of the indexed items of one product. The total is decimal, so quantities
+     * added and later subtracted cancel out exactly instead of leaving binary rounding behind.
+     */
+    private static final class Stock {
+        private Product product;
+        private BigDecimal totalQuantity = BigDecimal.ZERO;
+        private final NavigableMap<LocalDate, Integer> expirations = new TreeMap<>();
+
+        private Stock(Product product) {
+            this.product = product;
+        }
+    }
+
+    /**
+     * @param defaultMinimumQuantity minimum quantity of products that have none of their own
+     */
+    public PantryAlertIndex(PantryItemRepository pantryItemRepository, ProductRepository productRepository,
+                            ChangeEvents events, double defaultMinimumQuantity) {
+        this.pantryItemRepository = pantryItemRepository;
+        this.productRepository = productRepository;
+        this.events = events;
+        this.defaultMinimumQuantity = defaultMinimumQuantity;
+    }
+
+    /**
+     * Rebuilds the whole index from the repository.
+     */
+    public synchronized void rebuild() {
+        items.clear();
+        itemsByProduct.clear();
+        itemsByExpiration.clear();
+        stockByProduct.clear();
+        productsByStock.clear();
+        for (PantryItem item : pantryItemRepository.findAll()) {
+            add(copyOf(item));
+        }
+        for (Product product : productRepository.findAllWithMinimumQuantity()) {
+            if (!stockByProduct.containsKey(product.getId())) {
+                addEmptyStock(copyOf(product));
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces the indexed state of a pantry item.
+     */
+    public void put(PantryItem item) {
+        change(List.of(copyOf(item)), List.of());
+    }
+
+    /**
+     * Adds or replaces the indexed state of several pantry items.
+     */
+    public void putAll(Collection<PantryItem> pantryItems) {
+        change(pantryItems.stream().map(PantryAlertIndex::copyOf).toList(), List.of());
+    }
+
+    /**
+     * Removes a pantry item from the index.
+     */
+    public void remove(Long pantryItemId) {
+        change(List.of(), List.of(pantryItemId));
+    }
+
+    /**
+     * Removes several pantry items from the index.
+     */
+    public void removeAll(Collection<Long> pantryItemIds) {
+        change(List.of(), List.copyOf(pantryItemIds));
+    }
+
+    private void change(List<PantryItem> snapshots, List<Long> removedIds) {
+        apply(() -> {
+            List<PantryItem> previousStates = new ArrayList<>();
+            List<PantryItem> currentStates = new ArrayList<>();
+            // Stock of every product touched, as it was before the change; null if it had no items
+            Map<Long, ProductStockDto> previousStocks = new LinkedHashMap<>();
+            List<ProductStockDto> currentStocks = new ArrayList<>();
+            synchronized (this) {
+                for (PantryItem snapshot : snapshots) {
+                    if (isStale(snapshot)) continue;
+                    PantryItem previous = unlink(snapshot.getId(), previousStocks);
+                    if (previous != null) previousStates.add(previous);
+                    touch(snapshot.getProduct().getId(), previousStocks);
+                    add(snapshot);
+                    currentStates.add(snapshot);
+                }
+                for (Long id : removedIds) {
+                    removedItemIds.add(id);
+                    PantryItem previous = unlink(id, previousStocks);
+                    if (previous != null) previousStates.add(previous);
+                }
+                for (Long productId : previousStocks.keySet()) {
+                    ProductStockDto current = stockOf(productId);
+                    if (current != null) currentStocks.add(current);
+                }
+            }
+            events.alertStatesChanged(previousStates, currentStates,
+                    previousStocks.values().stream().filter(Objects::nonNull).toList(), currentStocks);
+        });
+    }
+
+    /**
+     * Refreshes the product data of every indexed item of the given product, and judges the product's
+     * stock against its reorder quantities as they are now. A product without items gains or loses its
+     * empty stock entry as it gains or loses a minimum quantity of its own.
+     */
+    public void updateProduct(Product product) {
+        Product snapshot = copyOf(product);
+        Long productId = snapshot.getId();
+        apply(() -> {
+            ProductStockDto previous;
+            ProductStockDto current;
+            synchronized (this) {
+                Stock stock = stockByProduct.get(productId);
+                if (stock == null) {
+                    if (!keepsEmptyStock(snapshot)) return;
+                    previous = null;
+                    addEmptyStock(snapshot);
+                } else {
+                    previous = stockOf(productId);
+                    for (Long id : itemsByProduct.getOrDefault(productId, Set.of())) {
+                        items.get(id).setProduct(copyOf(snapshot));
+                    }
+                    unlink(productsByStock, shortfall(stock), productId);
+                    stock.product = copyOf(snapshot);
+                    if (itemsByProduct.containsKey(productId) || keepsEmptyStock(snapshot)) {
+                        link(productsByStock, shortfall(stock), productId);
+                    } else {
+                        stockByProduct.remove(productId);
+                    }
+                }
+                current = stockOf(productId);
+            }
+            events.alertStatesChanged(List.of(), List.of(), listOf(previous), listOf(current));
+        });
+    }
+
+    /**
+     * Drops the empty stock entry of a deleted product.
+     */
+    public void removeProduct(Long productId) {
+        apply(() -> {
+            ProductStockDto previous;
+            synchronized (this) {
+                Stock stock = stockByProduct.get(productId);
+                // A product with items cannot be deleted; their removal drops the entry
+                if (stock == null || itemsByProduct.containsKey(productId)) return;
+                previous = stockOf(productId);
+                unlink(productsByStock, shortfall(stock), productId);
+                stockByProduct.remove(productId);
+            }
+            events.alertStatesChanged(List.of(), List.of(), List.of(previous), List.of());
+        });
+    }
+
+    /**
+     * Items whose expiration date is before the given day.
+     */
+    public synchronized List<PantryItem> findExpired(LocalDate today) {
+        return collect(itemsByExpiration.headMap(today, false).values());
+    }
+
+    /**
+     * Items that are not expired but expire before {@code today + days}.
+     */
+    public synchronized List<PantryItem> findExpiringSoon(LocalDate today, int days) {
+        return collect(itemsByExpiration.subMap(today, true, today.plusDays(days), false).values());
+    }
+
+    /**
+     * Products whose total quantity over all their items is less than or equal to their minimum quantity.
+     * Products without items are reported only when they have a minimum quantity of their own.
+     */
+    public synchronized List<ProductStockDto> findLowStock() {
+        List<ProductStockDto> result = new ArrayList<>();
+        for (Set<Long> bucket : productsByStock.headMap(0.0, true).values()) {
+            for (Long productId : bucket) {
+                result.add(stockOf(productId));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stock of the product, null when it has no items in the pantry and no minimum quantity of its own.
+     */
+    public synchronized ProductStockDto findStock(Long productId) {
+        return stockOf(productId);
+    }
+
+    /**
+     * Stock of every product in the pantry, and of every product with a minimum quantity of its own,
+     * by product id.
+     */
+    public synchronized List<ProductStockDto> findAllStock() {
+        List<ProductStockDto> result = new ArrayList<>(stockByProduct.size());
+        for (Long productId : stockByProduct.keySet()) {
+            result.add(stockOf(productId));
+        }
+        return result;
+    }
+
+    /**
+     * One of the product's items, the one that expires first, for alerts that must name an item.
+     */
+    public synchronized Long findFirstExpiringItemId(Long productId) {
+        Set<Long> ids = itemsByProduct.get(productId);
+        if (ids == null) return null;
+        Long first = null;
+        LocalDate firstExpiration = null;
+        for (Long id : ids) {
+            LocalDate expiration = items.get(id).getExpirationDate();
+            if (first == null || expiration != null && (firstExpiration == null || expiration.isBefore(firstExpiration))) {
+                first = id;
+                firstExpiration = expiration;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Applies a change to the index. Runs it immediately by default; subclasses may
+     * defer it, e.g. until the surrounding transaction has committed.
+     */
+    protected void apply(Runnable change) {
+        change.run();
+    }
+
+    private void add(PantryItem item) {
+        items.put(item.getId(), item);
+        link(itemsByProduct, item.getProduct().getId(), item.getId());
+        if (item.getExpirationDate() != null) {
+            link(itemsByExpiration, item.getExpirationDate(), item.getId());
+        }
+        
+        Long productId = item.getProduct().getId();
+        Stock stock = stockByProduct.get(productId);
+        if (stock == null) {
+            stock = new Stock(item.getProduct());
+            stockByProduct.put(productId, stock);
+        } else {
+            unlink(productsByStock, shortfall(stock), productId);
+        }
+        stock.totalQuantity = stock.totalQuantity.add(BigDecimal.valueOf(item.getQuantity()));
+        if (item.getExpirationDate() != null) {
+            stock.expirations.merge(item.getExpirationDate(), 1, Integer::sum);
+        }
+        link(productsByStock, shortfall(stock), productId);
+    }
+
+    /**
+     * @param previousStocks receives the stock of the item's product before it changes
+     * @return the state the item was indexed with, null if it was not indexed
+     */
+    private PantryItem unlink(Long id, Map<Long, ProductStockDto> previousStocks) {
+        PantryItem previous = items.get(id);
+        if (previous == null) return null;
+        Long productId = previous.getProduct().getId();
+        touch(productId, previousStocks);
+        items.remove(id);
+        unlink(itemsByProduct, productId, id);
+        if (previous.getExpirationDate() != null) {
+            unlink(itemsByExpiration, previous.getExpirationDate(), id);
+        }
+        
+        Stock stock = stockByProduct.get(productId);
+        unlink(productsByStock, shortfall(stock), productId);
+        if (!itemsByProduct.containsKey(productId) && !keepsEmptyStock(stock.product)) {
+            stockByProduct.remove(productId);
+            return previous;
+        }
+        stock.totalQuantity = stock.totalQuantity.subtract(BigDecimal.valueOf(previous.getQuantity()));
+        if (previous.getExpirationDate() != null) {
+            stock.expirations.merge(previous.getExpirationDate(), -1, (count, minusOne) -> count == 1 ? null : count - 1);
+        }
+        link(productsByStock, shortfall(stock), productId);
+        return previous;
+    }
+
+    /**
+     * Whether the item state was committed before the indexed one, or before the item was removed.
+     */
+    private boolean isStale(PantryItem snapshot) {
+        if (removedItemIds.contains(snapshot.getId())) return true;
+        PantryItem indexed = items.get(snapshot.getId());
+        return indexed != null && snapshot.getVersion() != null && indexed.getVersion() != null
+                && snapshot.getVersion() < indexed.getVersion();
+    }
+
+    private void addEmptyStock(Product product) {
+        Stock stock = new Stock(product);
+        stockByProduct.put(product.getId(), stock);
+        link(productsByStock, shortfall(stock), product.getId());
+    }
+
+    private static boolean keepsEmptyStock(Product product) {
+        return product.getMinimumQuantity() != null;
+    }
+
+    private static List<ProductStockDto> listOf(ProductStockDto stock) {
+        return stock != null ? List.of(stock) : List.of();
+    }
+
+    private void touch(Long productId, Map<Long, ProductStockDto> previousStocks) {
+        if (!previousStocks.containsKey(productId)) {
+            previousStocks.put(productId, stockOf(productId));
+        }
+    }
+
+    private double shortfall(Stock stock) {
+        return stock.totalQuantity
+                .subtract(BigDecimal.valueOf(stock.product.minimumQuantityOr(defaultMinimumQuantity)))
+                .doubleValue();
+    }
+
+    private ProductStockDto stockOf(Long productId) {
+        Stock stock = stockByProduct.get(productId);
+        if (stock == null) return null;
+        return new ProductStockDto(
+            productId,
+            stock.product.getName(),
+            stock.product.getUnit(),
+            stock.totalQuantity.doubleValue(),
+            itemsByProduct.getOrDefault(productId, Set.of()).size(),
+            stock.expirations.isEmpty() ? null : stock.expirations.firstKey(),
+            stock.product.minimumQuantityOr(defaultMinimumQuantity),
+            stock.product.targetQuantityOr(defaultMinimumQuantity)
+        );
+    }
+
+    private List<PantryItem> collect(Collection<Set<Long>> buckets) {
+        List<PantryItem> result = new ArrayList<>();
+        for (Set<Long> bucket : buckets) {
+            for (Long id : bucket) {
+                result.add(items.get(id));
+            }
+        }
+        return result;
+    }
+
+    private static <K> void link(Map<K, Set<Long>> index, K key, Long id) {
+        index.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+    }
+
+    private static <K> void unlink(Map<K, Set<Long>> index, K key, Long id) {
+        Set<Long> bucket = index.get(key);
+        if (bucket == null) return;
+        bucket.remove(id);
+        if (bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static PantryItem copyOf(PantryItem item) {
+        PantryItem copy = new PantryItem(
+            item.getId(),
+            copyOf(item.getProduct()),
+            item.getQuantity(),
+            item.getExpirationDate(),
+            item.getAddedDate(),
+            item.getLocation(),
+            item.getNotes()
+        );
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+
+    private static Product copyOf(Product product) {
+        return new Product(
+            product.getId(),
+            product.getName(),
+            product.getCategory(),
+            product.getUnit(),
+            product.getDescription(),
+            product.isTrackExpiration(),
+            product.getMinimumQuantity(),
+            product.getTargetQuantity()
+        );
+    }
+}
@@ -3,90 +3,200 @@ package com.viniciusvr.edespensa.application.usecase.pantry;
 import com.viniciusvr.edespensa.application.dto.BatchConsumptionDto;
 import com.viniciusvr.edespensa.application.dto.ConsumptionItemDto;
 import com.viniciusvr.edespensa.application.dto.ConsumptionResultDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.application.usecase.dashboard.PantryAlertIndex;
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
 import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
 import com.viniciusvr.edespensa.domain.exception.InsufficientQuantityException;
+import com.viniciusvr.edespensa.domain.repository.LotDraw;
 import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Use case for consuming items from the pantry.
- * Supports batch consumption and provides feedback about depleted items.
+ * Supports batch consumption, consumption by product across its lots, and provides feedback
+ * about depleted items.
  */
 public class ConsumePantryItemUseCase {
 
     private final PantryItemRepository pantryItemRepository;
+    private final ProductRepository productRepository;
+    private final PantryAlertIndex alertIndex;
+    private final AggregateVersions versions;
+    private final ChangeEvents events;
 
-    public ConsumePantryItemUseCase(PantryItemRepository pantryItemRepository) {
+    public ConsumePantryItemUseCase(PantryItemRepository pantryItemRepository, ProductRepository productRepository,
+                                    PantryAlertIndex alertIndex, AggregateVersions versions, ChangeEvents events) {
         this.pantryItemRepository = pantryItemRepository;
+        this.productRepository = productRepository;
+        this.alertIndex = alertIndex;
+        this.versions = versions;
+        this.events = events;
     }
 
     /**
      * Consume a single item from the pantry.
      */
     public ConsumptionResultDto consumeItem(Long pantryItemId, Double quantity) {
-        PantryItem item = pantryItemRepository.findById(pantryItemId)
-                .orElseThrow(() -> new EntityNotFoundException("PantryItem", pantryItemId));
-        
-        if (quantity > item.getQuantity()) {
-            throw new InsufficientQuantityException(
-                item.getProduct().getName(), 
-                quantity, 
-                item.getQuantity()
-            );
-        }
-        
+        versions.changed(Aggregate.PANTRY);
         List<Long> depletedIds = new ArrayList<>();
         List<String> depletedNames = new ArrayList<>();
         
-        boolean isEmpty = item.consume(quantity);
+        consume(pantryItemId, quantity, depletedIds, depletedNames);
         
-        if (isEmpty) {
-            depletedIds.add(item.getId());
-            depletedNames.add(item.getProduct().getName());
-            pantryItemRepository.delete(item);
-        } else {
-            pantryItemRepository.save(item);
+        return ConsumptionResultDto.success(1, depletedIds, depletedNames);
+    }
+
+    /**
+     * Consume a quantity of a product from its pantry lots, first-expired-first-out: the lot that
+     * expires first is emptied before the next one is touched. Only the lots needed are read and
+     * updated; emptied lots are removed and reported as depleted.
+     */
+    public ConsumptionResultDto consumeProduct(Long productId, Double quantity) {
+        versions.changed(Aggregate.PANTRY);
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to consume must be positive");
         }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product", productId));
         
-        return ConsumptionResultDto.success(1, depletedIds, depletedNames);
+        LotDraw draw = pantryItemRepository.consumeFirstExpiring(productId, quantity);
+        if (!draw.isDrawn()) {
+            throw new InsufficientQuantityException(product.getName(), quantity, draw.available());
+        }
+        
+        List<Long> depletedIds = new ArrayList<>();
+        List<String> depletedNames = new ArrayList<>();
+        settle(draw.lotIds(), depletedIds, depletedNames);
+        pantryItemRepository.deleteAllIfDepleted(depletedIds);
+        
+        return ConsumptionResultDto.success(draw.lotIds().size(), depletedIds, depletedNames);
     }
 
     /**
      * Consume multiple items in batch.
+     * All decrements are sent as one batched conditional update and the batch fails as a whole
+     * if any item is missing or short.
      */
     public ConsumptionResultDto consumeBatch(BatchConsumptionDto batchDto) {
+        return consumeBatch(List.of(batchDto.items()).iterator());
+    }
+
+    /**
+     * Consume a batch that arrives in chunks, one batched conditional update per chunk.
+     * The batch still fails as a whole if any item is missing or short; depleted items are
+     * only deleted at the end, so a later chunk naming one of them is reported as short.
+     */
+    public ConsumptionResultDto consumeBatch(Iterator<List<ConsumptionItemDto>> chunks) {
+        versions.changed(Aggregate.PANTRY);
+        int itemsConsumed = 0;
         List<Long> depletedIds = new ArrayList<>();
         List<String> depletedNames = new ArrayList<>();
-        int consumedCount = 0;
         
-        for (ConsumptionItemDto consumptionItem : batchDto.items()) {
-            PantryItem item = pantryItemRepository.findById(consumptionItem.pantryItemId())
-                    .orElseThrow(() -> new EntityNotFoundException("PantryItem", consumptionItem.pantryItemId()));
-            
-            if (consumptionItem.quantity() > item.getQuantity()) {
-                throw new InsufficientQuantityException(
-                    item.getProduct().getName(), 
-                    consumptionItem.quantity(), 
-                    item.getQuantity()
-                );
+        while (chunks.hasNext()) {
+            List<ConsumptionItemDto> chunk = chunks.next();
+            itemsConsumed += chunk.size();
+            consumeChunk(chunk, depletedIds, depletedNames);
+        }
+        pantryItemRepository.deleteAllIfDepleted(depletedIds);
+        
+        return ConsumptionResultDto.success(itemsConsumed, depletedIds, depletedNames);
+    }
+
+    private void consumeChunk(List<ConsumptionItemDto> chunk, List<Long> depletedIds, List<String> depletedNames) {
+        Map<Long, Double> quantitiesById = new LinkedHashMap<>();
+        for (ConsumptionItemDto consumptionItem : chunk) {
+            if (consumptionItem.quantity() == null || consumptionItem.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity to consume must be positive");
             }
-            
-            boolean isEmpty = item.consume(consumptionItem.quantity());
-            
-            if (isEmpty) {
+            quantitiesById.merge(consumptionItem.pantryItemId(), consumptionItem.quantity(), Double::sum);
+        }
+        
+        List<Long> rejectedIds = pantryItemRepository.consumeAllIfAvailable(quantitiesById);
+        if (!rejectedIds.isEmpty()) {
+            Long rejectedId = rejectedIds.get(0);
+            throw consumptionFailure(rejectedId, quantitiesById.get(rejectedId));
+        }
+        
+        settle(quantitiesById.keySet(), depletedIds, depletedNames);
+    }
+
+    /**
+     * Reads back the items just consumed, collects the depleted ones for deletion and publishes the
+     * new quantities.
+     */
+    private void settle(Collection<Long> consumedIds, List<Long> depletedIds, List<String> depletedNames) {
+        Map<Long, PantryItem> itemsById = new HashMap<>();
+        for (PantryItem item : pantryItemRepository.findAllById(consumedIds)) {
+            itemsById.put(item.getId(), item);
+        }
+        
+        List<PantryItem> consumed = new ArrayList<>();
+        List<PantryItem> depleted = new ArrayList<>();
+        for (Long id : consumedIds) {
+            PantryItem item = itemsById.get(id);
+            if (item.getQuantity() <= 0) {
                 depletedIds.add(item.getId());
                 depletedNames.add(item.getProduct().getName());
-                pantryItemRepository.delete(item);
+                depleted.add(item);
             } else {
-                pantryItemRepository.save(item);
+                consumed.add(item);
             }
-            
-            consumedCount++;
         }
+        events.itemsConsumed(consumed);
+        events.itemsDepleted(depleted);
+        alertIndex.putAll(consumed);
+        alertIndex.removeAll(depleted.stream().map(PantryItem::getId).toList());
+    }
+
+    /**
+     * Decrements the item with a single conditional update, so concurrent consumptions
+     * of the same item cannot overwrite each other. The item is only read back afterwards.
+     */
+    private void consume(Long pantryItemId, Double quantity, List<Long> depletedIds, List<String> depletedNames) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to consume must be positive");
+        }
+        
+        if (!pantryItemRepository.consumeIfAvailable(pantryItemId, quantity)) {
+            throw consumptionFailure(pantryItemId, quantity);
+        }
+        
+        PantryItem item = pantryItemRepository.findById(pantryItemId)
+                .orElseThrow(() -> new EntityNotFoundException("PantryItem", pantryItemId));
         
-        return ConsumptionResultDto.success(consumedCount, depletedIds, depletedNames);
+        if (item.getQuantity() <= 0 && pantryItemRepository.deleteIfDepleted(pantryItemId)) {
+            depletedIds.add(item.getId());
+            depletedNames.add(item.getProduct().getName());
+            events.itemsDepleted(List.of(item));
+            alertIndex.remove(item.getId());
+        } else {
+            events.itemsConsumed(List.of(item));
+            alertIndex.put(item);
+        }
+    }
+
+    /**
+     * Builds the error for a rejected conditional update: either the item is gone or it is short.
+     */
+    private RuntimeException consumptionFailure(Long pantryItemId, Double quantity) {
+        PantryItem item = pantryItemRepository.findById(pantryItemId)
+                .orElseThrow(() -> new EntityNotFoundException("PantryItem", pantryItemId));
+        return new InsufficientQuantityException(
+            item.getProduct().getName(), 
+            quantity, 
+            item.getQuantity()
+        );
     }
 }
@@ -1,11 +1,20 @@
 package com.viniciusvr.edespensa.application.usecase.pantry;
 
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.application.usecase.dashboard.PantryAlertIndex;
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
 import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
+import com.viniciusvr.edespensa.domain.repository.DeletedPantryItem;
 import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Use case for discarding items from the pantry.
@@ -13,9 +22,16 @@ import java.util.List;
 public class DiscardPantryItemUseCase {
 
     private final PantryItemRepository pantryItemRepository;
+    private final PantryAlertIndex alertIndex;
+    private final AggregateVersions versions;
+    private final ChangeEvents events;
 
-    public DiscardPantryItemUseCase(PantryItemRepository pantryItemRepository) {
+    public DiscardPantryItemUseCase(PantryItemRepository pantryItemRepository, PantryAlertIndex alertIndex,
+                                    AggregateVersions versions, ChangeEvents events) {
         this.pantryItemRepository = pantryItemRepository;
+        this.alertIndex = alertIndex;
+        this.versions = versions;
+        this.events = events;
     }
 
     /**
@@ -23,11 +39,14 @@ public class DiscardPantryItemUseCase {
      * @return the product name of the discarded item
      */
     public String discardItem(Long pantryItemId) {
+        versions.changed(Aggregate.PANTRY);
         PantryItem item = pantryItemRepository.findById(pantryItemId)
                 .orElseThrow(() -> new EntityNotFoundException("PantryItem", pantryItemId));
         
         String productName = item.getProduct().getName();
         pantryItemRepository.delete(item);
+        events.itemsDiscarded(Map.of(item.getId(), new DeletedPantryItem(item.getProduct().getId(), productName)));
+        alertIndex.remove(item.getId());
         return productName;
     }
 
@@ -36,15 +55,35 @@ public class DiscardPantryItemUseCase {
      * @return list of product names that were discarded
      */
     public List<String> discardItems(List<Long> pantryItemIds) {
+        return discardItems(List.of(pantryItemIds).iterator());
+    }
+
+    /**
+     * Discard pantry items whose ids arrive in chunks, one bulk delete per chunk.
+     * @return list of product names that were discarded
+     */
+    public List<String> discardItems(Iterator<List<Long>> idChunks) {
+        versions.changed(Aggregate.PANTRY);
+        Map<Long, DeletedPantryItem> deleted = new LinkedHashMap<>();
         List<String> discardedNames = new ArrayList<>();
         
-        for (Long id : pantryItemIds) {
-            PantryItem item = pantryItemRepository.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("PantryItem", id));
-            discardedNames.add(item.getProduct().getName());
-            pantryItemRepository.delete(item);
+        while (idChunks.hasNext()) {
+            List<Long> chunk = idChunks.next();
+            // Ids repeated from an earlier chunk are already gone
+            deleted.putAll(pantryItemRepository.deleteAllById(
+                    chunk.stream().filter(id -> !deleted.containsKey(id)).toList()));
+            for (Long id : chunk) {
+                // A missing id rolls the whole batch back
+                DeletedPantryItem discarded = deleted.get(id);
+                if (discarded == null) {
+                    throw new EntityNotFoundException("PantryItem", id);
+                }
+                discardedNames.add(discarded.productName());
+            }
         }
         
+        events.itemsDiscarded(deleted);
+        alertIndex.removeAll(deleted.keySet());
         return discardedNames;
     }
 
@@ -53,16 +92,10 @@ public class DiscardPantryItemUseCase {
      * @return list of product names that were discarded
      */
     public List<String> discardAllExpired() {
-        List<PantryItem> allItems = pantryItemRepository.findAll();
-        List<String> discardedNames = new ArrayList<>();
-        
-        for (PantryItem item : allItems) {
-            if (item.isExpired()) {
-                discardedNames.add(item.getProduct().getName());
-                pantryItemRepository.delete(item);
-            }
-        }
-        
-        return discardedNames;
+        versions.changed(Aggregate.PANTRY);
+        Map<Long, DeletedPantryItem> deleted = pantryItemRepository.deleteExpiredBefore(LocalDate.now());
+        events.itemsDiscarded(deleted);
+        alertIndex.removeAll(deleted.keySet());
+        return deleted.values().stream().map(DeletedPantryItem::productName).toList();
     }
 }
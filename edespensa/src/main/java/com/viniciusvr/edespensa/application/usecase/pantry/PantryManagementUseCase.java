@@ -1,14 +1,32 @@
 package com.viniciusvr.edespensa.application.usecase.pantry;
 
+import com.viniciusvr.edespensa.application.dto.ProductStockDto;
 import com.viniciusvr.edespensa.application.dto.QuickPurchaseDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.application.usecase.dashboard.PantryAlertIndex;
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
 import com.viniciusvr.edespensa.domain.entity.Product;
 import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+import com.viniciusvr.edespensa.domain.repository.DeletedPantryItem;
+import com.viniciusvr.edespensa.domain.repository.PantryItemQuery;
 import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.PantryItemView;
 import com.viniciusvr.edespensa.domain.repository.ProductRepository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Use case for managing pantry items.
@@ -17,24 +35,35 @@ public class PantryManagementUseCase {
 
     private final PantryItemRepository pantryItemRepository;
     private final ProductRepository productRepository;
+    private final PantryAlertIndex alertIndex;
+    private final AggregateVersions versions;
+    private final ChangeEvents events;
 
-    public PantryManagementUseCase(PantryItemRepository pantryItemRepository, ProductRepository productRepository) {
+    public PantryManagementUseCase(PantryItemRepository pantryItemRepository, ProductRepository productRepository,
+                                   PantryAlertIndex alertIndex, AggregateVersions versions, ChangeEvents events) {
         this.pantryItemRepository = pantryItemRepository;
         this.productRepository = productRepository;
+        this.alertIndex = alertIndex;
+        this.versions = versions;
+        this.events = events;
     }
 
     public PantryItem addToPantry(Long productId, Double quantity, LocalDate expirationDate, String location, String notes) {
+        versions.changed(Aggregate.PANTRY);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product", productId));
         
         PantryItem pantryItem = PantryItem.createNew(product, quantity, expirationDate, location, notes);
-        return pantryItemRepository.save(pantryItem);
+        PantryItem saved = pantryItemRepository.save(pantryItem);
+        alertIndex.put(saved);
+        return saved;
     }
 
     /**
      * Quick purchase action - creates product if needed and adds to pantry.
      */
     public PantryItem quickPurchase(QuickPurchaseDto purchaseDto) {
+        versions.changed(Aggregate.PANTRY, Aggregate.CATALOG);
         Product product;
         
         if (purchaseDto.hasExistingProduct()) {
@@ -63,7 +92,81 @@ public class PantryManagementUseCase {
             purchaseDto.notes()
         );
         
-        return pantryItemRepository.save(pantryItem);
+        PantryItem saved = pantryItemRepository.save(pantryItem);
+        alertIndex.put(saved);
+        return saved;
+    }
+
+    /**
+     * Quick purchase of many items at once. Products are resolved with one lookup by id and one by name,
+     * missing products are created together (items naming the same new product share it, the first
+     * item's category and unit win) and all pantry items are inserted in one batch.
+     */
+    public List<PantryItem> quickPurchaseBatch(List<QuickPurchaseDto> purchases) {
+        versions.changed(Aggregate.PANTRY, Aggregate.CATALOG);
+        Set<Long> productIds = new LinkedHashSet<>();
+        Set<String> productNames = new LinkedHashSet<>();
+        for (QuickPurchaseDto purchase : purchases) {
+            if (purchase.hasExistingProduct()) {
+                productIds.add(purchase.productId());
+            } else {
+                productNames.add(purchase.productName());
+            }
+        }
+        
+        Map<Long, Product> productsById = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.findAllById(productIds)) {
+                productsById.put(product.getId(), product);
+            }
+            for (Long productId : productIds) {
+                if (!productsById.containsKey(productId)) {
+                    throw new EntityNotFoundException("Product", productId);
+                }
+            }
+        }
+        
+        Map<String, Product> productsByName = new HashMap<>();
+        if (!productNames.isEmpty()) {
+            for (Product product : productRepository.findAllByNameIn(productNames)) {
+                productsByName.put(product.getName(), product);
+            }
+            Map<String, Product> newProducts = new LinkedHashMap<>();
+            for (QuickPurchaseDto purchase : purchases) {
+                if (!purchase.hasExistingProduct() && !productsByName.containsKey(purchase.productName())) {
+                    newProducts.computeIfAbsent(purchase.productName(), name -> Product.createNew(
+                        name,
+                        purchase.category() != null ? purchase.category() : "Outros",
+                        purchase.unit() != null ? purchase.unit() : "un",
+                        null,
+                        purchase.expirationDate() != null
+                    ));
+                }
+            }
+            if (!newProducts.isEmpty()) {
+                for (Product product : productRepository.saveAll(new ArrayList<>(newProducts.values()))) {
+                    productsByName.put(product.getName(), product);
+                }
+            }
+        }
+        
+        List<PantryItem> pantryItems = new ArrayList<>(purchases.size());
+        for (QuickPurchaseDto purchase : purchases) {
+            Product product = purchase.hasExistingProduct()
+                    ? productsById.get(purchase.productId())
+                    : productsByName.get(purchase.productName());
+            pantryItems.add(PantryItem.createNew(
+                product,
+                purchase.quantity(),
+                purchase.expirationDate(),
+                purchase.location(),
+                purchase.notes()
+            ));
+        }
+        
+        List<PantryItem> saved = pantryItemRepository.saveAll(pantryItems);
+        alertIndex.putAll(saved);
+        return saved;
     }
 
     public PantryItem getPantryItemById(Long id) {
@@ -71,8 +174,43 @@ public class PantryManagementUseCase {
                 .orElseThrow(() -> new EntityNotFoundException("PantryItem", id));
     }
 
-    public List<PantryItem> getAllPantryItems() {
-        return pantryItemRepository.findAll();
+    public List<PantryItemView> getAllPantryItems() {
+        return pantryItemRepository.findAllViews();
+    }
+
+    /**
+     * Hands every pantry item to the sink as it is read, without building the full list.
+     */
+    public void exportPantryItems(Consumer<PantryItemView> sink) {
+        try (Stream<PantryItemView> items = pantryItemRepository.streamAllViews()) {
+            items.forEach(sink);
+        }
+    }
+
+    /**
+     * Returns one page of pantry items. Low stock keeps the items of the products the dashboard alerts
+     * on, those whose total quantity is at or below their minimum, served from the alert index. A product
+     * with a minimum of its own and no items is low stock too, but has nothing to list here.
+     */
+    public CursorPage<PantryItem> getPantryItemPage(PantryItemQuery query, boolean lowStockOnly) {
+        if (lowStockOnly) {
+            Set<Long> productIds = new HashSet<>();
+            for (ProductStockDto stock : alertIndex.findLowStock()) {
+                productIds.add(stock.productId());
+            }
+            if (productIds.isEmpty()) {
+                return new CursorPage<>(List.of(), null);
+            }
+            query = query.withProductIds(productIds);
+        }
+        return pantryItemRepository.findPage(query);
+    }
+
+    /**
+     * Stock of every product in the pantry, summed over its items. Served from the alert index.
+     */
+    public List<ProductStockDto> getStockSummary() {
+        return alertIndex.findAllStock();
     }
 
     public List<PantryItem> getPantryItemsByProduct(Long productId) {
@@ -84,6 +222,7 @@ public class PantryManagementUseCase {
     }
 
     public PantryItem updatePantryItem(Long id, Double quantity, LocalDate expirationDate, String location, String notes) {
+        versions.changed(Aggregate.PANTRY);
         PantryItem item = getPantryItemById(id);
         
         if (quantity != null) item.setQuantity(quantity);
@@ -91,13 +230,18 @@ public class PantryManagementUseCase {
         if (location != null) item.setLocation(location);
         if (notes != null) item.setNotes(notes);
         
-        return pantryItemRepository.save(item);
+        PantryItem saved = pantryItemRepository.save(item);
+        alertIndex.put(saved);
+        return saved;
     }
 
     public void deletePantryItem(Long id) {
-        if (!pantryItemRepository.existsById(id)) {
-            throw new EntityNotFoundException("PantryItem", id);
-        }
-        pantryItemRepository.deleteById(id);
+        versions.changed(Aggregate.PANTRY);
+        PantryItem item = pantryItemRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("PantryItem", id));
+        pantryItemRepository.delete(item);
+        // Announced like a discard, so listeners drop the item whichever way it left the pantry
+        events.itemsDiscarded(Map.of(id, new DeletedPantryItem(item.getProduct().getId(), item.getProduct().getName())));
+        alertIndex.remove(id);
     }
 }
@@ -1,11 +1,18 @@
 package com.viniciusvr.edespensa.application.usecase.product;
 
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.dashboard.PantryAlertIndex;
 import com.viniciusvr.edespensa.domain.entity.Product;
 import com.viniciusvr.edespensa.domain.exception.BusinessRuleException;
 import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+import com.viniciusvr.edespensa.domain.repository.ProductQuery;
 import com.viniciusvr.edespensa.domain.repository.ProductRepository;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Use case for managing products (CRUD operations).
@@ -13,20 +20,38 @@ import java.util.List;
 public class ProductManagementUseCase {
 
     private final ProductRepository productRepository;
+    private final PantryAlertIndex alertIndex;
+    private final AggregateVersions versions;
 
-    public ProductManagementUseCase(ProductRepository productRepository) {
+    public ProductManagementUseCase(ProductRepository productRepository, PantryAlertIndex alertIndex,
+                                    AggregateVersions versions) {
         this.productRepository = productRepository;
+        this.alertIndex = alertIndex;
+        this.versions = versions;
     }
 
-    public Product createProduct(String name, String category, String unit, String description, boolean trackExpiration) {
+    /**
+     * @param minimumQuantity stock at or below which the product is low; null for the default
+     * @param targetQuantity stock to restock up to; null to restock up to the minimum
+     */
+    public Product createProduct(String name, String category, String unit, String description, boolean trackExpiration,
+                                 Double minimumQuantity, Double targetQuantity) {
+        versions.changed(Aggregate.CATALOG);
         if (productRepository.existsByName(name)) {
             throw new BusinessRuleException("Product with name '" + name + "' already exists");
         }
+        validateReorderQuantities(minimumQuantity, targetQuantity);
         Product product = Product.createNew(name, category, unit, description, trackExpiration);
-        return productRepository.save(product);
+        product.setMinimumQuantity(minimumQuantity);
+        product.setTargetQuantity(targetQuantity);
+        Product saved = productRepository.save(product);
+        // With a minimum quantity of its own, a product is low stock until it is first stocked
+        alertIndex.updateProduct(saved);
+        return saved;
     }
 
     public Product createSimpleProduct(String name) {
+        versions.changed(Aggregate.CATALOG);
         if (productRepository.existsByName(name)) {
             return productRepository.findByName(name)
                     .orElseThrow(() -> new EntityNotFoundException("Product", name));
@@ -49,6 +74,19 @@ public class ProductManagementUseCase {
         return productRepository.findAll();
     }
 
+    /**
+     * Hands every product to the sink as it is read, without building the full list.
+     */
+    public void exportProducts(Consumer<Product> sink) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(sink);
+        }
+    }
+
+    public CursorPage<Product> getProductPage(ProductQuery query) {
+        return productRepository.findPage(query);
+    }
+
     public List<Product> getProductsByCategory(String category) {
         return productRepository.findByCategory(category);
     }
@@ -57,26 +95,44 @@ public class ProductManagementUseCase {
         return productRepository.findByNameContaining(searchTerm);
     }
 
-    public Product updateProduct(Long id, String name, String category, String unit, String description, boolean trackExpiration) {
+    /**
+     * Replaces the product's data; its stock is judged against the new reorder quantities right away.
+     */
+    public Product updateProduct(Long id, String name, String category, String unit, String description, boolean trackExpiration,
+                                 Double minimumQuantity, Double targetQuantity) {
+        versions.changed(Aggregate.CATALOG);
         Product product = getProductById(id);
         
         if (!product.getName().equals(name) && productRepository.existsByName(name)) {
             throw new BusinessRuleException("Product with name '" + name + "' already exists");
         }
+        validateReorderQuantities(minimumQuantity, targetQuantity);
         
         product.setName(name);
         product.setCategory(category);
         product.setUnit(unit);
         product.setDescription(description);
         product.setTrackExpiration(trackExpiration);
+        product.setMinimumQuantity(minimumQuantity);
+        product.setTargetQuantity(targetQuantity);
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        alertIndex.updateProduct(saved);
+        return saved;
+    }
+
+    private static void validateReorderQuantities(Double minimumQuantity, Double targetQuantity) {
+        if (minimumQuantity != null && targetQuantity != null && targetQuantity < minimumQuantity) {
+            throw new BusinessRuleException("Target quantity must not be below the minimum quantity");
+        }
     }
 
     public void deleteProduct(Long id) {
+        versions.changed(Aggregate.CATALOG);
         if (!productRepository.existsById(id)) {
             throw new EntityNotFoundException("Product", id);
         }
         productRepository.deleteById(id);
+        alertIndex.removeProduct(id);
     }
 }
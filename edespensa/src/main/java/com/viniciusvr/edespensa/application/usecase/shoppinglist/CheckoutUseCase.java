@@ -0,0 +1,95 @@
+package com.viniciusvr.edespensa.application.usecase.shoppinglist;
+
+import com.viniciusvr.edespensa.application.dto.CheckoutItemDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.application.usecase.dashboard.PantryAlertIndex;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.exception.BusinessRuleException;
+import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Use case for checking out purchased shopping list items into the pantry.
+ */
+public class CheckoutUseCase {
+
+    private static final double DEFAULT_QUANTITY = 1.0;
+
+    private final ShoppingListItemRepository shoppingListRepository;
+    private final PantryItemRepository pantryItemRepository;
+    private final PantryAlertIndex alertIndex;
+    private final AggregateVersions versions;
+    private final ChangeEvents events;
+
+    public CheckoutUseCase(ShoppingListItemRepository shoppingListRepository,
+                           PantryItemRepository pantryItemRepository,
+                           PantryAlertIndex alertIndex,
+                           AggregateVersions versions,
+                           ChangeEvents events) {
+        this.shoppingListRepository = shoppingListRepository;
+        this.pantryItemRepository = pantryItemRepository;
+        this.alertIndex = alertIndex;
+        this.versions = versions;
+        this.events = events;
+    }
+
+    /**
+     * Marks the given pending items as purchased and adds one pantry item for each.
+     * All or nothing: an unknown, repeated or non-pending item rejects the whole checkout.
+     * @return the created pantry items, in request order
+     */
+    public List<PantryItem> checkout(List<CheckoutItemDto> checkoutItems) {
+        versions.changed(Aggregate.SHOPPING_LIST, Aggregate.PANTRY);
+        Map<Long, CheckoutItemDto> checkoutById = new LinkedHashMap<>();
+        for (CheckoutItemDto checkoutItem : checkoutItems) {
+            if (checkoutById.put(checkoutItem.shoppingListItemId(), checkoutItem) != null) {
+                throw new BusinessRuleException(
+                    "Shopping list item " + checkoutItem.shoppingListItemId() + " is listed more than once");
+            }
+        }
+        
+        Map<Long, ShoppingListItem> itemsById = shoppingListRepository.findAllById(checkoutById.keySet()).stream()
+                .collect(Collectors.toMap(ShoppingListItem::getId, Function.identity()));
+        
+        List<PantryItem> pantryItems = new ArrayList<>(checkoutById.size());
+        for (CheckoutItemDto checkoutItem : checkoutById.values()) {
+            Long id = checkoutItem.shoppingListItemId();
+            ShoppingListItem item = itemsById.get(id);
+            if (item == null) {
+                throw new EntityNotFoundException("ShoppingListItem", id);
+            }
+            if (!item.isPending()) {
+                throw new BusinessRuleException("Shopping list item " + id + " is not pending");
+            }
+            
+            Double quantity = checkoutItem.quantity() != null ? checkoutItem.quantity()
+                    : item.getQuantity() != null ? item.getQuantity() : DEFAULT_QUANTITY;
+            pantryItems.add(PantryItem.createNew(
+                item.getProduct(),
+                quantity,
+                checkoutItem.expirationDate(),
+                checkoutItem.location(),
+                null
+            ));
+        }
+        
+        // The pending check above read a snapshot; an item changed since then, such as one a concurrent
+        // checkout purchased, rejects the transition before any pantry item is added
+        shoppingListRepository.updateStatusIfUnchanged(itemsById.values(), ShoppingListItem.Status.PURCHASED);
+        events.shoppingItemsPurchased(checkoutById.keySet());
+        List<PantryItem> saved = pantryItemRepository.saveAll(pantryItems);
+        alertIndex.putAll(saved);
+        return saved;
+    }
+}
@@ -1,12 +1,24 @@
 package com.viniciusvr.edespensa.application.usecase.shoppinglist;
 
+import com.viniciusvr.edespensa.application.dto.StatusUpdateResultDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
 import com.viniciusvr.edespensa.domain.entity.Product;
 import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
 import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
 import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemQuery;
 import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemView;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Use case for managing shopping list items.
@@ -15,40 +27,42 @@ public class ShoppingListManagementUseCase {
 
     private final ShoppingListItemRepository shoppingListRepository;
     private final ProductRepository productRepository;
+    private final AggregateVersions versions;
+    private final ChangeEvents events;
 
     public ShoppingListManagementUseCase(ShoppingListItemRepository shoppingListRepository, 
-                                          ProductRepository productRepository) {
+                                          ProductRepository productRepository,
+                                          AggregateVersions versions,
+                                          ChangeEvents events) {
         this.shoppingListRepository = shoppingListRepository;
         this.productRepository = productRepository;
+        this.versions = versions;
+        this.events = events;
     }
 
     /**
-     * Add an item to the shopping list using an existing product.
+     * Add an item to the shopping list using an existing product. A product already on the list gets
+     * the quantity added to its pending item, with one atomic statement and no prior lookup.
      */
     public ShoppingListItem addItem(Long productId, Double quantity, ShoppingListItem.Priority priority, String notes) {
+        versions.changed(Aggregate.SHOPPING_LIST);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product", productId));
         
-        // Check if already in pending list - update quantity instead
-        return shoppingListRepository.findPendingByProductId(productId)
-                .map(existingItem -> {
-                    existingItem.setQuantity(existingItem.getQuantity() + quantity);
-                    if (priority != null && priority.ordinal() > existingItem.getPriority().ordinal()) {
-                        existingItem.setPriority(priority);
-                    }
-                    return shoppingListRepository.save(existingItem);
-                })
-                .orElseGet(() -> {
-                    ShoppingListItem item = ShoppingListItem.createNew(product, quantity, 
-                            priority != null ? priority : ShoppingListItem.Priority.MEDIUM, notes);
-                    return shoppingListRepository.save(item);
-                });
+        ShoppingListItem item = ShoppingListItem.createNew(product, quantity, 
+                priority != null ? priority : ShoppingListItem.Priority.MEDIUM, notes);
+        ShoppingListItem pending = shoppingListRepository.mergePending(item, priority);
+        if (item.getId() != null) {
+            events.shoppingItemsAdded(List.of(pending));
+        }
+        return pending;
     }
 
     /**
      * Add an item to the shopping list by product name - creates product if it doesn't exist.
      */
     public ShoppingListItem addItemByName(String productName, Double quantity, ShoppingListItem.Priority priority, String notes) {
+        versions.changed(Aggregate.SHOPPING_LIST, Aggregate.CATALOG);
         Product product = productRepository.findByName(productName)
                 .orElseGet(() -> {
                     Product newProduct = Product.createNew(productName, "Outros", "un", null, false);
@@ -62,16 +76,17 @@ public class ShoppingListManagementUseCase {
      * Add items automatically due to running low or expiring.
      */
     public ShoppingListItem addAutoItem(Long productId, Double suggestedQuantity, String reason) {
+        versions.changed(Aggregate.SHOPPING_LIST);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product", productId));
         
-        // Check if already exists
-        if (shoppingListRepository.existsPendingByProductId(productId)) {
+        ShoppingListItem item = ShoppingListItem.createAutoAdded(product, suggestedQuantity, reason);
+        if (shoppingListRepository.insertPendingIfAbsent(List.of(item)).isEmpty()) {
+            // Already on the list: keep the pending item as it is
             return shoppingListRepository.findPendingByProductId(productId).orElseThrow();
         }
-        
-        ShoppingListItem item = ShoppingListItem.createAutoAdded(product, suggestedQuantity, reason);
-        return shoppingListRepository.save(item);
+        events.shoppingItemsAdded(List.of(item));
+        return item;
     }
 
     public ShoppingListItem getItemById(Long id) {
@@ -79,15 +94,29 @@ public class ShoppingListManagementUseCase {
                 .orElseThrow(() -> new EntityNotFoundException("ShoppingListItem", id));
     }
 
-    public List<ShoppingListItem> getAllItems() {
-        return shoppingListRepository.findAll();
+    public List<ShoppingListItemView> getAllItems() {
+        return shoppingListRepository.findAllViews();
     }
 
-    public List<ShoppingListItem> getPendingItems() {
-        return shoppingListRepository.findPendingItems();
+    /**
+     * Hands every shopping list item to the sink as it is read, without building the full list.
+     */
+    public void exportItems(Consumer<ShoppingListItemView> sink) {
+        try (Stream<ShoppingListItemView> items = shoppingListRepository.streamAllViews()) {
+            items.forEach(sink);
+        }
+    }
+
+    public CursorPage<ShoppingListItem> getItemPage(ShoppingListItemQuery query) {
+        return shoppingListRepository.findPage(query);
+    }
+
+    public List<ShoppingListItemView> getPendingItems() {
+        return shoppingListRepository.findViewsByStatus(ShoppingListItem.Status.PENDING);
     }
 
     public ShoppingListItem updateItem(Long id, Double quantity, ShoppingListItem.Priority priority, String notes) {
+        versions.changed(Aggregate.SHOPPING_LIST);
         ShoppingListItem item = getItemById(id);
         
         if (quantity != null) item.setQuantity(quantity);
@@ -98,34 +127,94 @@ public class ShoppingListManagementUseCase {
     }
 
     public void markAsPurchased(Long id) {
+        versions.changed(Aggregate.SHOPPING_LIST);
         ShoppingListItem item = getItemById(id);
         item.markAsPurchased();
         shoppingListRepository.save(item);
+        events.shoppingItemsPurchased(List.of(id));
     }
 
-    public void markAsPurchasedBatch(List<Long> ids) {
-        for (Long id : ids) {
-            markAsPurchased(id);
-        }
+    /**
+     * Marks the given pending items as purchased with one batch of updates; unknown ids and items that
+     * are not pending are reported, not rejected.
+     */
+    public StatusUpdateResultDto markAsPurchasedBatch(List<Long> ids) {
+        return markAsPurchasedBatch(List.of(ids).iterator());
+    }
+
+    /**
+     * Marks pending items whose ids arrive in chunks as purchased, one batch of updates per chunk.
+     */
+    public StatusUpdateResultDto markAsPurchasedBatch(Iterator<List<Long>> idChunks) {
+        versions.changed(Aggregate.SHOPPING_LIST);
+        StatusUpdateResultDto result = updatePendingStatus(idChunks, ShoppingListItem.Status.PURCHASED);
+        events.shoppingItemsPurchased(result.updatedIds());
+        return result;
     }
 
     public void cancelItem(Long id) {
+        versions.changed(Aggregate.SHOPPING_LIST);
         ShoppingListItem item = getItemById(id);
         item.cancel();
         shoppingListRepository.save(item);
     }
 
+    /**
+     * Cancels the given pending items with one batch of updates; unknown ids and items that are not
+     * pending are reported, not rejected.
+     */
+    public StatusUpdateResultDto cancelBatch(List<Long> ids) {
+        return cancelBatch(List.of(ids).iterator());
+    }
+
+    /**
+     * Cancels pending items whose ids arrive in chunks, one batch of updates per chunk.
+     */
+    public StatusUpdateResultDto cancelBatch(Iterator<List<Long>> idChunks) {
+        versions.changed(Aggregate.SHOPPING_LIST);
+        return updatePendingStatus(idChunks, ShoppingListItem.Status.CANCELLED);
+    }
+
+    /**
+     * Moves only items that are still pending, so an item another request purchased or cancelled
+     * first is reported as not pending instead of being overwritten.
+     */
+    private StatusUpdateResultDto updatePendingStatus(Iterator<List<Long>> idChunks, ShoppingListItem.Status status) {
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> notPendingIds = new ArrayList<>();
+        List<Long> notFoundIds = new ArrayList<>();
+        while (idChunks.hasNext()) {
+            List<Long> chunk = idChunks.next();
+            Set<Long> updated = shoppingListRepository.updateStatus(chunk, ShoppingListItem.Status.PENDING, status);
+            Set<Long> existing = shoppingListRepository.findExistingIds(
+                    chunk.stream().filter(id -> !updated.contains(id)).toList());
+            for (Long id : chunk) {
+                if (updated.contains(id)) {
+                    updatedIds.add(id);
+                } else if (existing.contains(id)) {
+                    notPendingIds.add(id);
+                } else {
+                    notFoundIds.add(id);
+                }
+            }
+        }
+        return StatusUpdateResultDto.of(updatedIds, notPendingIds, notFoundIds, status.name());
+    }
+
     public void deleteItem(Long id) {
+        versions.changed(Aggregate.SHOPPING_LIST);
         if (!shoppingListRepository.existsById(id)) {
             throw new EntityNotFoundException("ShoppingListItem", id);
         }
         shoppingListRepository.deleteById(id);
     }
 
-    public void clearPurchasedItems() {
-        List<ShoppingListItem> purchased = shoppingListRepository.findByStatus(ShoppingListItem.Status.PURCHASED);
-        for (ShoppingListItem item : purchased) {
-            shoppingListRepository.delete(item);
-        }
+    /**
+     * Removes every purchased item.
+     * @return number of removed items
+     */
+    public int clearPurchasedItems() {
+        versions.changed(Aggregate.SHOPPING_LIST);
+        return shoppingListRepository.deleteByStatus(ShoppingListItem.Status.PURCHASED);
     }
 }
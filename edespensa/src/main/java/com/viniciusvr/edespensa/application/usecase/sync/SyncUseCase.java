@@ -0,0 +1,126 @@
+package com.viniciusvr.edespensa.application.usecase.sync;
+
+import com.viniciusvr.edespensa.application.dto.SyncResultDto;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogEntry;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogEntry.EntityType;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogRepository;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Use case for delta sync: clients keep a cursor into the change log and fetch only what changed
+ * after it. The cursor a client sends counts as applied by it; tombstones that every known client
+ * has applied are compacted away by a periodic job, off the sync requests. Clients not seen for the
+ * configured time are forgotten.
+ */
+public class SyncUseCase {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ProductRepository productRepository;
+    private final PantryItemRepository pantryItemRepository;
+    private final ShoppingListItemRepository shoppingListRepository;
+    private final Duration clientTtl;
+
+    public SyncUseCase(ChangeLogRepository changeLogRepository,
+                       ProductRepository productRepository,
+                       PantryItemRepository pantryItemRepository,
+                       ShoppingListItemRepository shoppingListRepository,
+                       Duration clientTtl) {
+        this.changeLogRepository = changeLogRepository;
+        this.productRepository = productRepository;
+        this.pantryItemRepository = pantryItemRepository;
+        this.shoppingListRepository = shoppingListRepository;
+        this.clientTtl = clientTtl;
+    }
+
+    /**
+     * Returns at most limit changes after the cursor. Compaction never passes a known client's cursor,
+     * so only a forgotten client behind the compacted tombstones, or a cursor ahead of the log because
+     * the database was recreated, cannot be served: the changes then start from the beginning with
+     * reset set, and the client replaces its copy.
+     */
+    public SyncResultDto getChanges(String clientId, long since, int limit) {
+        boolean reset = since > 0 && (since > changeLogRepository.findLastSeq()
+                || (since < changeLogRepository.findCompactedThrough()
+                        && changeLogRepository.findClientCursor(clientId).isEmpty()));
+        long from = reset ? 0 : since;
+        
+        List<ChangeLogEntry> entries = changeLogRepository.findSince(from, limit + 1);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+        long cursor = entries.isEmpty() ? from : entries.get(entries.size() - 1).seq();
+        
+        Map<EntityType, List<Long>> upsertedIds = new EnumMap<>(EntityType.class);
+        Map<EntityType, List<Long>> deletedIds = new EnumMap<>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            upsertedIds.put(type, new ArrayList<>());
+            deletedIds.put(type, new ArrayList<>());
+        }
+        for (ChangeLogEntry entry : entries) {
+            (entry.deleted() ? deletedIds : upsertedIds).get(entry.entityType()).add(entry.entityId());
+        }
+        
+        List<Product> products = load(upsertedIds.get(EntityType.PRODUCT),
+                productRepository::findAllById, Product::getId, deletedIds.get(EntityType.PRODUCT));
+        List<PantryItem> pantryItems = load(upsertedIds.get(EntityType.PANTRY_ITEM),
+                pantryItemRepository::findAllById, PantryItem::getId, deletedIds.get(EntityType.PANTRY_ITEM));
+        List<ShoppingListItem> shoppingListItems = load(upsertedIds.get(EntityType.SHOPPING_LIST_ITEM),
+                shoppingListRepository::findAllById, ShoppingListItem::getId,
+                deletedIds.get(EntityType.SHOPPING_LIST_ITEM));
+        
+        // Committed on its own by the repository, so a poll stays a read
+        changeLogRepository.saveClientCursor(clientId, from, Instant.now());
+        return new SyncResultDto(cursor, reset, hasMore,
+                products, deletedIds.get(EntityType.PRODUCT),
+                pantryItems, deletedIds.get(EntityType.PANTRY_ITEM),
+                shoppingListItems, deletedIds.get(EntityType.SHOPPING_LIST_ITEM));
+    }
+
+    /**
+     * Loads the changed entities in change order with one query. An entity that is gone was deleted
+     * after the read log position; it is reported as deleted right away.
+     */
+    private static <T> List<T> load(List<Long> ids, Function<Collection<Long>, List<T>> finder,
+                                    Function<T, Long> idOf, List<Long> deletedIds) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, T> found = finder.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> loaded = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = found.get(id);
+            if (entity != null) {
+                loaded.add(entity);
+            } else {
+                deletedIds.add(id);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Forgets inactive clients and compacts the tombstones every remaining client has moved past.
+     * Runs on a schedule, so sync polls never take the change log head that every writer locks.
+     * @return number of removed tombstones
+     */
+    public int compactTombstones() {
+        changeLogRepository.deleteClientsNotSeenSince(Instant.now().minus(clientTtl));
+        OptionalLong minCursor = changeLogRepository.findMinClientCursor();
+        return minCursor.isPresent() ? changeLogRepository.compactThrough(minCursor.getAsLong()) : 0;
+    }
+}
@@ -16,6 +16,11 @@ public class PantryItem {
     private LocalDate addedDate;
     private String location;
     private String notes;
+    /**
+     * Version of the stored state this object was read from, null until it is first stored.
+     * Saving a copy whose version is no longer current fails instead of overwriting the newer change.
+     */
+    private Long version;
 
     public PantryItem() {
     }
@@ -136,6 +141,14 @@ public class PantryItem {
         this.notes = notes;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -14,17 +14,26 @@ public class Product {
     private String unit;
     private String description;
     private boolean trackExpiration;
+    private Double minimumQuantity;
+    private Double targetQuantity;
 
     public Product() {
     }
 
     public Product(Long id, String name, String category, String unit, String description, boolean trackExpiration) {
+        this(id, name, category, unit, description, trackExpiration, null, null);
+    }
+
+    public Product(Long id, String name, String category, String unit, String description, boolean trackExpiration,
+                   Double minimumQuantity, Double targetQuantity) {
         this.id = id;
         this.name = name;
         this.category = category;
         this.unit = unit;
         this.description = description;
         this.trackExpiration = trackExpiration;
+        this.minimumQuantity = minimumQuantity;
+        this.targetQuantity = targetQuantity;
     }
 
     public static Product createNew(String name, String category, String unit, String description, boolean trackExpiration) {
@@ -79,6 +88,43 @@ public class Product {
         this.trackExpiration = trackExpiration;
     }
 
+    /**
+     * Stock at or below which the product is low; null when the product uses the default.
+     */
+    public Double getMinimumQuantity() {
+        return minimumQuantity;
+    }
+
+    public void setMinimumQuantity(Double minimumQuantity) {
+        this.minimumQuantity = minimumQuantity;
+    }
+
+    /**
+     * Stock a restock should bring the product back to; null when the product has none.
+     */
+    public Double getTargetQuantity() {
+        return targetQuantity;
+    }
+
+    public void setTargetQuantity(Double targetQuantity) {
+        this.targetQuantity = targetQuantity;
+    }
+
+    /**
+     * @param defaultMinimum minimum used when the product has none of its own
+     */
+    public double minimumQuantityOr(double defaultMinimum) {
+        return minimumQuantity != null ? minimumQuantity : defaultMinimum;
+    }
+
+    /**
+     * The target quantity, or the minimum when the product has no target.
+     * @param defaultMinimum minimum used when the product has none of its own
+     */
+    public double targetQuantityOr(double defaultMinimum) {
+        return targetQuantity != null ? targetQuantity : minimumQuantityOr(defaultMinimum);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
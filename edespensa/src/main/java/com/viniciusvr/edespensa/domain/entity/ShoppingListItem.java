@@ -24,6 +24,11 @@ public class ShoppingListItem {
     private LocalDateTime addedAt;
     private String notes;
     private boolean autoAdded;
+    /**
+     * Version of the stored state this object was read from, null until it is first stored.
+     * Saving a copy whose version is no longer current fails instead of overwriting the newer change.
+     */
+    private Long version;
 
     public ShoppingListItem() {
     }
@@ -126,6 +131,14 @@ public class ShoppingListItem {
         this.autoAdded = autoAdded;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,11 @@
+package com.viniciusvr.edespensa.domain.exception;
+
+/**
+ * Exception thrown when data kept being changed by concurrent requests, so an update could not be applied.
+ */
+public class ConcurrentUpdateException extends DomainException {
+
+    public ConcurrentUpdateException(Throwable cause) {
+        super("The data was changed by another request at the same time; reload it and try again", cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.viniciusvr.edespensa.domain.exception;
+
+/**
+ * Exception thrown when a page cursor cannot be decoded.
+ */
+public class InvalidCursorException extends DomainException {
+
+    public InvalidCursorException() {
+        super("Invalid cursor");
+    }
+}
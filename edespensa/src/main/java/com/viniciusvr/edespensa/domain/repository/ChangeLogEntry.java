@@ -0,0 +1,15 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+/**
+ * Latest change of one entity in the change log: its sequence number and whether it was a delete.
+ */
+public record ChangeLogEntry(
+    long seq,
+    EntityType entityType,
+    Long entityId,
+    boolean deleted
+) {
+    public enum EntityType {
+        PRODUCT, PANTRY_ITEM, SHOPPING_LIST_ITEM
+    }
+}
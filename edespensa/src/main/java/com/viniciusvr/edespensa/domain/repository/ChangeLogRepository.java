@@ -0,0 +1,48 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Repository interface (port) for the change log read by delta sync and the cursors of its clients.
+ * Changes themselves are recorded by the entity repositories as they write.
+ */
+public interface ChangeLogRepository {
+
+    /**
+     * Latest changes numbered after the given sequence number, in sequence order.
+     */
+    List<ChangeLogEntry> findSince(long seq, int limit);
+
+    /**
+     * Last sequence number handed out, 0 while the log is empty.
+     */
+    long findLastSeq();
+
+    /**
+     * Sequence number up to which tombstones were removed.
+     */
+    long findCompactedThrough();
+
+    /**
+     * Cursor the client last reported, empty for a client that is unknown or was forgotten.
+     */
+    OptionalLong findClientCursor(String clientId);
+
+    void saveClientCursor(String clientId, long seq, Instant seenAt);
+
+    /**
+     * Lowest cursor of the known clients, empty when there are none.
+     */
+    OptionalLong findMinClientCursor();
+
+    int deleteClientsNotSeenSince(Instant instant);
+
+    /**
+     * Removes the tombstones numbered up to the given sequence number and moves the compaction mark there.
+     * Does not write when the mark is already there or past it.
+     * @return number of removed tombstones
+     */
+    int compactThrough(long seq);
+}
@@ -0,0 +1,16 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * The cursor is opaque to callers and continues right after the last item of this page.
+ */
+public record CursorPage<T>(
+    List<T> items,
+    String nextCursor
+) {
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
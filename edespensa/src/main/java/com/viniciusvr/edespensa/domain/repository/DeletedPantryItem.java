@@ -0,0 +1,9 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+/**
+ * The product of a pantry item removed by a bulk delete, as it was when the item was deleted.
+ */
+public record DeletedPantryItem(
+    Long productId,
+    String productName
+) {}
@@ -0,0 +1,16 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+import java.util.List;
+
+/**
+ * Outcome of drawing a quantity from the pantry lots of one product.
+ * Nothing is drawn when the lots together hold less than the quantity asked for.
+ */
+public record LotDraw(
+    List<Long> lotIds,
+    double available
+) {
+    public boolean isDrawn() {
+        return !lotIds.isEmpty();
+    }
+}
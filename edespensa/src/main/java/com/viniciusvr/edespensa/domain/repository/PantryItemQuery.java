@@ -0,0 +1,29 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Filters, sort order and page position for listing pantry items.
+ * Null filters are ignored.
+ */
+public record PantryItemQuery(
+    String location,
+    String category,
+    LocalDate expiresFrom,
+    LocalDate expiresTo,
+    Set<Long> productIds,
+    Sort sort,
+    boolean descending,
+    String cursor,
+    int limit
+) {
+    public enum Sort {
+        ID, EXPIRATION_DATE, QUANTITY, PRODUCT_NAME
+    }
+
+    public PantryItemQuery withProductIds(Set<Long> productIds) {
+        return new PantryItemQuery(location, category, expiresFrom, expiresTo, productIds, 
+                                   sort, descending, cursor, limit);
+    }
+}
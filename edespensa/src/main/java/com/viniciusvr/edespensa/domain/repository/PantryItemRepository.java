@@ -3,8 +3,11 @@ package com.viniciusvr.edespensa.domain.repository;
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface (port) for PantryItem entity.
@@ -14,10 +17,33 @@ public interface PantryItemRepository {
 
     PantryItem save(PantryItem pantryItem);
 
+    /**
+     * Inserts new items in a single batch.
+     */
+    List<PantryItem> saveAll(List<PantryItem> pantryItems);
+
     Optional<PantryItem> findById(Long id);
 
     List<PantryItem> findAll();
 
+    /**
+     * Returns every pantry item as a read-only view, without loading entities.
+     */
+    List<PantryItemView> findAllViews();
+
+    /**
+     * Streams every pantry item as a read-only view, ordered by id, fetching rows in bounded batches.
+     * Must be consumed and closed inside a transaction.
+     */
+    Stream<PantryItemView> streamAllViews();
+
+    List<PantryItem> findAllById(Collection<Long> ids);
+
+    /**
+     * Returns one keyset page of pantry items matching the query.
+     */
+    CursorPage<PantryItem> findPage(PantryItemQuery query);
+
     List<PantryItem> findByProductId(Long productId);
 
     List<PantryItem> findByProductName(String productName);
@@ -32,6 +58,53 @@ public interface PantryItemRepository {
 
     List<PantryItem> findLowStock(Double threshold);
 
+    /**
+     * Atomically subtracts the quantity, provided the item holds at least that much.
+     * @return true if the item was found with enough quantity and updated
+     */
+    boolean consumeIfAvailable(Long id, Double quantity);
+
+    /**
+     * Deletes the item if its quantity has reached zero.
+     * @return true if the item was deleted
+     */
+    boolean deleteIfDepleted(Long id);
+
+    /**
+     * Atomically subtracts each quantity with one batched conditional update.
+     * @param quantitiesById quantity to subtract per item id
+     * @return ids of the items that were missing or did not hold enough quantity
+     */
+    List<Long> consumeAllIfAvailable(Map<Long, Double> quantitiesById);
+
+    /**
+     * Takes the quantity from the product's lots first-expired-first-out: lots are drawn in order of
+     * expiration date, lots without one last, each emptied before the next is touched. The draw is
+     * planned by one query returning only the lots it needs and applied with one batch of conditional
+     * updates; a lot changed concurrently since the plan fails the draw instead of being overwritten.
+     * Emptied lots are kept at zero for the caller to delete.
+     * @return the lots drawn from, first-expired first, and what the lots held before
+     */
+    LotDraw consumeFirstExpiring(Long productId, Double quantity);
+
+    /**
+     * Deletes the given items whose quantity has reached zero.
+     * @return number of deleted items
+     */
+    int deleteAllIfDepleted(Collection<Long> ids);
+
+    /**
+     * Deletes the given items with set-based statements, in bounded chunks.
+     * @return product of each deleted item, keyed by item id; missing ids are absent
+     */
+    Map<Long, DeletedPantryItem> deleteAllById(Collection<Long> ids);
+
+    /**
+     * Deletes every item that expired before the given date, in bounded chunks.
+     * @return product of each deleted item, keyed by item id
+     */
+    Map<Long, DeletedPantryItem> deleteExpiredBefore(LocalDate date);
+
     void deleteById(Long id);
 
     void delete(PantryItem pantryItem);
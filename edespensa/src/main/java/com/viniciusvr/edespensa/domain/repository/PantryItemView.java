@@ -0,0 +1,46 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Flat read model of a pantry item and its product, built directly from a query.
+ * Used by read-only listings that do not need the domain entities.
+ */
+public record PantryItemView(
+    Long id,
+    Long productId,
+    String productName,
+    String productCategory,
+    String productUnit,
+    String productDescription,
+    boolean productTrackExpiration,
+    Double productMinimumQuantity,
+    Double productTargetQuantity,
+    Double quantity,
+    LocalDate expirationDate,
+    LocalDate addedDate,
+    String location,
+    String notes
+) {
+    /**
+     * Same rule as {@code PantryItem.isExpired()}.
+     */
+    public boolean isExpired() {
+        return expirationDate != null && expirationDate.isBefore(LocalDate.now());
+    }
+
+    /**
+     * Same rule as {@code PantryItem.isExpiringSoon(int)}.
+     */
+    public boolean isExpiringSoon(int days) {
+        if (expirationDate == null) return false;
+        return !isExpired() && expirationDate.isBefore(LocalDate.now().plusDays(days));
+    }
+
+    /**
+     * Same rule as {@code PantryItem.isLowStock(Double)}.
+     */
+    public boolean isLowStock(double threshold) {
+        return quantity <= threshold;
+    }
+}
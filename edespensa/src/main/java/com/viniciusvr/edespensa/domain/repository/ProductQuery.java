@@ -0,0 +1,18 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+/**
+ * Filters, sort order and page position for listing products.
+ * Null filters are ignored.
+ */
+public record ProductQuery(
+    String category,
+    String nameContains,
+    Sort sort,
+    boolean descending,
+    String cursor,
+    int limit
+) {
+    public enum Sort {
+        ID, NAME, CATEGORY
+    }
+}
@@ -2,8 +2,10 @@ package com.viniciusvr.edespensa.domain.repository;
 
 import com.viniciusvr.edespensa.domain.entity.Product;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface (port) for Product entity.
@@ -13,14 +15,42 @@ public interface ProductRepository {
 
     Product save(Product product);
 
+    /**
+     * Inserts new products in a single batch.
+     */
+    List<Product> saveAll(List<Product> products);
+
     Optional<Product> findById(Long id);
 
+    List<Product> findAllById(Collection<Long> ids);
+
     Optional<Product> findByName(String name);
 
+    /**
+     * Returns the products whose name is one of the given names, in one query.
+     */
+    List<Product> findAllByNameIn(Collection<String> names);
+
     List<Product> findAll();
 
+    /**
+     * Streams every product, ordered by id, fetching rows in bounded batches.
+     * Must be consumed and closed inside a transaction.
+     */
+    Stream<Product> streamAll();
+
+    /**
+     * Returns one keyset page of products matching the query.
+     */
+    CursorPage<Product> findPage(ProductQuery query);
+
     List<Product> findByCategory(String category);
 
+    /**
+     * Returns the products that have a minimum quantity of their own.
+     */
+    List<Product> findAllWithMinimumQuantity();
+
     List<Product> findByNameContaining(String name);
 
     void deleteById(Long id);
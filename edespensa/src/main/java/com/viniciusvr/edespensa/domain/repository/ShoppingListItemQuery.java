@@ -0,0 +1,20 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+
+/**
+ * Filters, sort order and page position for listing shopping list items.
+ * Null filters are ignored.
+ */
+public record ShoppingListItemQuery(
+    ShoppingListItem.Status status,
+    ShoppingListItem.Priority priority,
+    Sort sort,
+    boolean descending,
+    String cursor,
+    int limit
+) {
+    public enum Sort {
+        ID, ADDED_AT, PRODUCT_NAME
+    }
+}
@@ -2,8 +2,11 @@ package com.viniciusvr.edespensa.domain.repository;
 
 import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository interface (port) for ShoppingListItem entity.
@@ -13,10 +16,38 @@ public interface ShoppingListItemRepository {
 
     ShoppingListItem save(ShoppingListItem item);
 
+    /**
+     * Inserts new items in a single batch.
+     */
+    List<ShoppingListItem> saveAll(List<ShoppingListItem> items);
+
     Optional<ShoppingListItem> findById(Long id);
 
+    List<ShoppingListItem> findAllById(Collection<Long> ids);
+
     List<ShoppingListItem> findAll();
 
+    /**
+     * Returns every shopping list item as a read-only view, without loading entities.
+     */
+    List<ShoppingListItemView> findAllViews();
+
+    /**
+     * Streams every shopping list item as a read-only view, ordered by id, fetching rows in bounded batches.
+     * Must be consumed and closed inside a transaction.
+     */
+    Stream<ShoppingListItemView> streamAllViews();
+
+    /**
+     * Returns the shopping list items with the given status as read-only views.
+     */
+    List<ShoppingListItemView> findViewsByStatus(ShoppingListItem.Status status);
+
+    /**
+     * Returns one keyset page of shopping list items matching the query.
+     */
+    CursorPage<ShoppingListItem> findPage(ShoppingListItemQuery query);
+
     List<ShoppingListItem> findByStatus(ShoppingListItem.Status status);
 
     List<ShoppingListItem> findPendingItems();
@@ -25,11 +56,50 @@ public interface ShoppingListItemRepository {
 
     Optional<ShoppingListItem> findPendingByProductId(Long productId);
 
+    /**
+     * Moves the given items from status {@code from} to {@code to} with conditional updates, batched in
+     * bounded chunks. Items not in {@code from}, including ones a concurrent transaction moved first,
+     * are left as they are.
+     * @return ids of the items that were moved
+     */
+    Set<Long> updateStatus(Collection<Long> ids, ShoppingListItem.Status from, ShoppingListItem.Status to);
+
+    /**
+     * Sets the status of items read earlier in the transaction, each only if it is still at the version
+     * it was read at; otherwise the update is rejected as a concurrent change and nothing is moved.
+     */
+    void updateStatusIfUnchanged(Collection<ShoppingListItem> items, ShoppingListItem.Status status);
+
+    /**
+     * @return the given ids that belong to an existing item
+     */
+    Set<Long> findExistingIds(Collection<Long> ids);
+
     void deleteById(Long id);
 
     void delete(ShoppingListItem item);
 
+    /**
+     * Deletes every item with the given status, in bounded chunks.
+     * @return number of deleted items
+     */
+    int deleteByStatus(ShoppingListItem.Status status);
+
     boolean existsById(Long id);
+    /**
+     * Adds a new item to its product's pending item in one atomic statement, without reading first:
+     * the item's quantity is added to the pending item and its priority raised to {@code raiseTo} if
+     * that is higher; when the product has no pending item, the new item is inserted and gets its id.
+     * The database holds at most one pending item per product, so concurrent adds never duplicate it.
+     * @param raiseTo priority the pending item is raised to, or null to keep its priority
+     * @return the product's pending item after the add
+     */
+    ShoppingListItem mergePending(ShoppingListItem item, ShoppingListItem.Priority raiseTo);
 
-    boolean existsPendingByProductId(Long productId);
+    /**
+     * Inserts the new items whose product has no pending item yet and leaves the others out, as one
+     * batch of atomic insert-if-absent statements; inserted items get their ids.
+     * @return the items that were inserted
+     */
+    List<ShoppingListItem> insertPendingIfAbsent(List<ShoppingListItem> items);
 }
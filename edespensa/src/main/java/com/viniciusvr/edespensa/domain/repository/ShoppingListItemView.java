@@ -0,0 +1,25 @@
+package com.viniciusvr.edespensa.domain.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model of a shopping list item and its product, built directly from a query.
+ * Used by read-only listings that do not need the domain entities.
+ */
+public record ShoppingListItemView(
+    Long id,
+    Long productId,
+    String productName,
+    String productCategory,
+    String productUnit,
+    String productDescription,
+    boolean productTrackExpiration,
+    Double productMinimumQuantity,
+    Double productTargetQuantity,
+    Double quantity,
+    String priority,
+    String status,
+    LocalDateTime addedAt,
+    String notes,
+    boolean autoAdded
+) {}
@@ -0,0 +1,54 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.presentation.sse.ChangeEventBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the Server-Sent Events stream of change events.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "event-stream")
+public class EventStreamConfig {
+
+    /**
+     * Events queued per subscriber; a subscriber that falls further behind is disconnected.
+     */
+    private int subscriberBuffer = 256;
+
+    /**
+     * Interval of the comment lines sent on idle streams to detect closed connections.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+
+    @Bean
+    public ChangeEventBroadcaster changeEventBroadcaster(ChangeEvents changeEvents, ObjectMapper objectMapper,
+                                                         MeterRegistry meterRegistry) {
+        ChangeEventBroadcaster broadcaster =
+                new ChangeEventBroadcaster(subscriberBuffer, heartbeatInterval, objectMapper, meterRegistry);
+        changeEvents.addListener(broadcaster::publish);
+        return broadcaster;
+    }
+
+    public int getSubscriberBuffer() {
+        return subscriberBuffer;
+    }
+
+    public void setSubscriberBuffer(int subscriberBuffer) {
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+}
@@ -0,0 +1,47 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the retry of use case calls that lost a concurrent update.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "optimistic-retry")
+public class OptimisticRetryConfig {
+
+    /**
+     * Attempts in total before the conflict is reported to the client.
+     */
+    private int maxAttempts = 4;
+
+    /**
+     * Upper bound of the random pause before the first retry; each further retry may wait longer.
+     */
+    private Duration backoff = Duration.ofMillis(10);
+
+    @Bean
+    public OptimisticRetryInterceptor optimisticRetryInterceptor(MeterRegistry meterRegistry) {
+        return new OptimisticRetryInterceptor(maxAttempts, backoff, meterRegistry);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getBackoff() {
+        return backoff;
+    }
+
+    public void setBackoff(Duration backoff) {
+        this.backoff = backoff;
+    }
+}
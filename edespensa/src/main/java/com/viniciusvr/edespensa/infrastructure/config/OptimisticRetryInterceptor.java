@@ -0,0 +1,100 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.viniciusvr.edespensa.domain.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.BaseStream;
+
+/**
+ * Use case interceptor that reruns a call whose transaction lost a concurrency race, typically an
+ * optimistic lock: a row it read was updated by another transaction first, so its own update was
+ * rejected instead of overwriting that change. Each attempt runs in a new transaction on the current
+ * data, after a short random pause; once the attempts run out the conflict surfaces as a
+ * {@link ConcurrentUpdateException}. Only the outermost use case call is rerun, and never a call whose
+ * input is a one-shot source such as an iterator over a request body.
+ */
+public class OptimisticRetryInterceptor implements MethodInterceptor {
+
+    private record Outcome(String method, String result) {
+    }
+
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<Outcome, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxAttempts attempts in total, including the first one
+     * @param backoff upper bound of the random pause before the first retry, growing with each retry
+     */
+    public OptimisticRetryInterceptor(int maxAttempts, Duration backoff, MeterRegistry meterRegistry) {
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Called inside another use case's transaction: rerunning here would see the same stale state
+            return invocation.proceed();
+        }
+        boolean replayable = isReplayable(invocation.getArguments());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+            } catch (ConcurrencyFailureException e) {
+                if (!replayable || attempt >= maxAttempts) {
+                    count(invocation, "exhausted");
+                    throw new ConcurrentUpdateException(e);
+                }
+                count(invocation, "retried");
+                pause(attempt, e);
+            }
+        }
+    }
+
+    private static boolean isReplayable(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof Iterator<?> || argument instanceof BaseStream<?, ?>) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Random pause so callers that collided do not collide again in lockstep.
+     */
+    private void pause(int attempt, ConcurrencyFailureException conflict) {
+        if (backoffNanos <= 0) return;
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(backoffNanos * attempt) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException(conflict);
+        }
+    }
+
+    private void count(MethodInvocation invocation, String result) {
+        String method = invocation.getMethod().getDeclaringClass().getSimpleName() + "." + invocation.getMethod().getName();
+        counters.computeIfAbsent(new Outcome(method, result), outcome ->
+                Counter.builder("usecase.write.conflicts")
+                        .description("Use case calls that lost a concurrent update race, by outcome: retried or exhausted")
+                        .tag("method", outcome.method())
+                        .tag("result", outcome.result())
+                        .register(meterRegistry))
+                .increment();
+    }
+}
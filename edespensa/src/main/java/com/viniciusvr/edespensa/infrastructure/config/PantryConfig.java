@@ -16,7 +16,8 @@ public class PantryConfig {
     private int expiringSoonDays = 7;
 
     /**
-     * Quantity threshold below which an item is considered "low stock".
+     * Minimum quantity of products that have none of their own: a product whose stock is at or
+     * below it is "low stock". Pantry item listings compare single items with it.
      */
     private double lowStockThreshold = 2.0;
 
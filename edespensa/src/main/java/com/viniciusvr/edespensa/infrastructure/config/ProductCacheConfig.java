@@ -0,0 +1,56 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import com.viniciusvr.edespensa.infrastructure.persistence.repository.CachingProductRepository;
+import com.viniciusvr.edespensa.infrastructure.persistence.repository.ProductRepositoryImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-process product catalog cache.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "product-cache")
+public class ProductCacheConfig {
+
+    /**
+     * Maximum number of entries kept per lookup (by id and by name).
+     */
+    private long maximumSize = 1000;
+
+    /**
+     * Time after which a cached entry is reloaded, bounding staleness from writes made elsewhere.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Caching repository injected wherever a ProductRepository is required.
+     */
+    @Bean
+    @Primary
+    public ProductRepository cachingProductRepository(ProductRepositoryImpl productRepositoryImpl,
+                                                      MeterRegistry meterRegistry) {
+        return new CachingProductRepository(productRepositoryImpl, maximumSize, expireAfterWrite, meterRegistry);
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
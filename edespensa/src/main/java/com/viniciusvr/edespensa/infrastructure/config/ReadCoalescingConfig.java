@@ -0,0 +1,59 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configuration of the coalescing of concurrent identical use case reads.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "read-coalescing")
+public class ReadCoalescingConfig {
+
+    /**
+     * Reads to coalesce, as SimpleClassName.methodName. Meant for the argument-free listings
+     * that many clients load at the same time.
+     */
+    private Set<String> methods = new LinkedHashSet<>(List.of(
+        "DashboardUseCase.getAlerts",
+        "ProductManagementUseCase.getAllProducts",
+        "PantryManagementUseCase.getAllPantryItems",
+        "ShoppingListManagementUseCase.getAllItems",
+        "ShoppingListManagementUseCase.getPendingItems"
+    ));
+
+    /**
+     * How long a completed read is reused. Zero only shares reads that are still running.
+     */
+    private Duration freshFor = Duration.ZERO;
+
+    @Bean
+    public SingleFlightInterceptor readCoalescingInterceptor(TransactionAttributeSource useCaseTransactionAttributes,
+                                                             MeterRegistry meterRegistry) {
+        return new SingleFlightInterceptor(methods, freshFor, useCaseTransactionAttributes, meterRegistry);
+    }
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(Set<String> methods) {
+        this.methods = methods;
+    }
+
+    public Duration getFreshFor() {
+        return freshFor;
+    }
+
+    public void setFreshFor(Duration freshFor) {
+        this.freshFor = freshFor;
+    }
+}
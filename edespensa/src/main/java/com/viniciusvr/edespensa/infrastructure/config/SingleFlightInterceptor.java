@@ -0,0 +1,142 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Use case interceptor that coalesces concurrent identical reads: while a call of one of the
+ * configured methods is running, callers with the same arguments wait for it and share its result
+ * instead of running their own. Optionally the result stays fresh for a short window afterwards.
+ * Any completed write through a use case drops the fresh results and detaches running reads,
+ * so a caller never gets data older than a write it has already seen complete.
+ * Shared results must not be modified by callers.
+ */
+public class SingleFlightInterceptor implements MethodInterceptor {
+
+    private record Key(String method, List<Object> args) {
+    }
+
+    private record Fresh(Object value, long expiresAt, long generation) {
+    }
+
+    private record Outcome(String method, String result) {
+    }
+
+    private final Set<String> coalescedMethods;
+    private final long freshForNanos;
+    private final TransactionAttributeSource transactionAttributes;
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Key, Fresh> fresh = new ConcurrentHashMap<>();
+    private final Map<Outcome, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    /**
+     * @param coalescedMethods methods to coalesce, as {@code SimpleClassName.methodName}
+     * @param freshFor how long a result is reused after it completed; zero shares in-flight calls only
+     * @param transactionAttributes tells reads from writes: a method that is not read-only is a write
+     */
+    public SingleFlightInterceptor(Set<String> coalescedMethods, Duration freshFor,
+                                   TransactionAttributeSource transactionAttributes, MeterRegistry meterRegistry) {
+        this.coalescedMethods = coalescedMethods;
+        this.freshForNanos = freshFor.toNanos();
+        this.transactionAttributes = transactionAttributes;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis()) : invocation.getMethod().getDeclaringClass();
+        String method = targetClass.getSimpleName() + "." + invocation.getMethod().getName();
+
+        if (!coalescedMethods.contains(method)) {
+            if (!isReadOnly(invocation, targetClass)) {
+                try {
+                    return invocation.proceed();
+                } finally {
+                    invalidate();
+                }
+            }
+            return invocation.proceed();
+        }
+        return coalesce(new Key(method, Arrays.asList(invocation.getArguments())), invocation);
+    }
+
+    private Object coalesce(Key key, MethodInvocation invocation) throws Throwable {
+        long generation = writeGeneration.get();
+        Fresh cached = fresh.get(key);
+        if (cached != null && cached.generation() == generation && System.nanoTime() - cached.expiresAt() < 0) {
+            count(key, "fresh");
+            return cached.value();
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            count(key, "joined");
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        count(key, "executed");
+        try {
+            Object result = invocation.proceed();
+            if (freshForNanos > 0 && writeGeneration.get() == generation) {
+                fresh.put(key, new Fresh(result, System.nanoTime() + freshForNanos, generation));
+            }
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private boolean isReadOnly(MethodInvocation invocation, Class<?> targetClass) {
+        TransactionAttribute attribute = transactionAttributes.getTransactionAttribute(invocation.getMethod(), targetClass);
+        return attribute != null && attribute.isReadOnly();
+    }
+
+    /**
+     * Called after a write: later callers must not get results computed before it.
+     */
+    public void invalidate() {
+        writeGeneration.incrementAndGet();
+        fresh.clear();
+        inFlight.clear();
+    }
+
+    /**
+     * Counters are registered on first use and kept, so counting a call is one map lookup.
+     */
+    private void count(Key key, String result) {
+        counters.computeIfAbsent(new Outcome(key.method(), result), outcome ->
+                Counter.builder("usecase.read.coalescing")
+                        .description("Coalesced use case reads by outcome: executed, joined an in-flight call, or served fresh")
+                        .tag("method", outcome.method())
+                        .tag("result", outcome.result())
+                        .register(meterRegistry))
+                .increment();
+    }
+}
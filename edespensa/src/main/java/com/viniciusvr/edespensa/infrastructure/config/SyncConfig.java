@@ -0,0 +1,53 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.viniciusvr.edespensa.application.usecase.sync.SyncUseCase;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for delta sync, and the schedule of its tombstone compaction.
+ */
+@Configuration
+@EnableScheduling
+@ConfigurationProperties(prefix = "sync")
+public class SyncConfig {
+
+    /**
+     * How long a client may go without syncing before it is forgotten. Forgotten clients no longer
+     * hold back tombstone compaction; when they return with an old cursor they resync from scratch.
+     */
+    private Duration clientTtl = Duration.ofDays(30);
+
+    /**
+     * Interval of the job that forgets inactive clients and compacts the tombstones all clients have seen.
+     */
+    private Duration compactionInterval = Duration.ofHours(1);
+
+    @Bean
+    public SchedulingConfigurer syncCompaction(SyncUseCase syncUseCase) {
+        return registrar -> registrar.addFixedDelayTask(
+                new FixedDelayTask(syncUseCase::compactTombstones, compactionInterval, compactionInterval));
+    }
+
+    public Duration getClientTtl() {
+        return clientTtl;
+    }
+
+    public void setClientTtl(Duration clientTtl) {
+        this.clientTtl = clientTtl;
+    }
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+}
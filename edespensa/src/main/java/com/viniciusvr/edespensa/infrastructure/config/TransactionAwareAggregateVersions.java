@@ -0,0 +1,39 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aggregate versions that move only once the surrounding transaction has committed and every
+ * after-commit update (alert index, product cache) has run, so a reader that sees the new version
+ * also sees the new data. Before a counter moves, coalesced reads computed earlier are dropped.
+ */
+public class TransactionAwareAggregateVersions extends AggregateVersions {
+
+    private final SingleFlightInterceptor readCoalescing;
+
+    public TransactionAwareAggregateVersions(SingleFlightInterceptor readCoalescing) {
+        this.readCoalescing = readCoalescing;
+    }
+
+    @Override
+    protected void apply(Runnable change) {
+        Runnable invalidateThenChange = () -> {
+            readCoalescing.invalidate();
+            change.run();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateThenChange.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    invalidateThenChange.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Change events that go out only after the surrounding transaction commits,
+ * so a use case that rolls back announces nothing.
+ */
+public class TransactionAwareChangeEvents extends ChangeEvents {
+
+    public TransactionAwareChangeEvents(int expiringSoonDays) {
+        super(expiringSoonDays);
+    }
+
+    @Override
+    protected void apply(Runnable delivery) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            delivery.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                delivery.run();
+            }
+        });
+    }
+}
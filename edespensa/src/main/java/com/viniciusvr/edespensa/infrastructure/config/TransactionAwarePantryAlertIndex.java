@@ -0,0 +1,36 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.application.usecase.dashboard.PantryAlertIndex;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Alert index that applies changes only after the surrounding transaction commits,
+ * so a use case that rolls back leaves the index untouched. Concurrent transactions may run
+ * these callbacks in another order than they committed in; the index drops the stale states.
+ */
+public class TransactionAwarePantryAlertIndex extends PantryAlertIndex {
+
+    public TransactionAwarePantryAlertIndex(PantryItemRepository pantryItemRepository,
+                                            ProductRepository productRepository, ChangeEvents events,
+                                            double defaultMinimumQuantity) {
+        super(pantryItemRepository, productRepository, events, defaultMinimumQuantity);
+    }
+
+    @Override
+    protected void apply(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -1,16 +1,28 @@
 package com.viniciusvr.edespensa.infrastructure.config;
 
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
 import com.viniciusvr.edespensa.application.usecase.dashboard.DashboardUseCase;
+import com.viniciusvr.edespensa.application.usecase.dashboard.PantryAlertIndex;
 import com.viniciusvr.edespensa.application.usecase.pantry.ConsumePantryItemUseCase;
 import com.viniciusvr.edespensa.application.usecase.pantry.DiscardPantryItemUseCase;
 import com.viniciusvr.edespensa.application.usecase.pantry.PantryManagementUseCase;
 import com.viniciusvr.edespensa.application.usecase.product.ProductManagementUseCase;
+import com.viniciusvr.edespensa.application.usecase.shoppinglist.CheckoutUseCase;
 import com.viniciusvr.edespensa.application.usecase.shoppinglist.ShoppingListManagementUseCase;
+import com.viniciusvr.edespensa.application.usecase.sync.SyncUseCase;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogRepository;
 import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
 import com.viniciusvr.edespensa.domain.repository.ProductRepository;
 import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
+import org.springframework.aop.framework.autoproxy.BeanNameAutoProxyCreator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.interceptor.NameMatchTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
 
 /**
  * Configuration class for use case beans.
@@ -19,43 +31,155 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class UseCaseConfig {
 
+    /**
+     * Wraps every use case bean in a proxy that coalesces concurrent identical reads, reruns calls that
+     * lost a concurrent update and applies the use case transactions, keeping the use case classes
+     * themselves free of framework annotations.
+     */
     @Bean
-    public ProductManagementUseCase productManagementUseCase(ProductRepository productRepository) {
-        return new ProductManagementUseCase(productRepository);
+    public static BeanNameAutoProxyCreator useCaseProxyCreator() {
+        BeanNameAutoProxyCreator proxyCreator = new BeanNameAutoProxyCreator();
+        proxyCreator.setBeanNames("*UseCase");
+        // Coalescing comes first, so callers that share a read also share its transaction;
+        // the retry wraps the transaction, so every attempt commits or rolls back on its own
+        proxyCreator.setInterceptorNames("readCoalescingInterceptor", "optimisticRetryInterceptor",
+                "useCaseTransactionInterceptor");
+        proxyCreator.setProxyTargetClass(true);
+        return proxyCreator;
+    }
+
+    /**
+     * One transaction per use case call. Query methods run read-only so Hibernate
+     * skips dirty checking; everything else commits once and rolls back as a whole.
+     */
+    @Bean
+    public TransactionInterceptor useCaseTransactionInterceptor(TransactionManager transactionManager,
+                                                                TransactionAttributeSource useCaseTransactionAttributes) {
+        return new TransactionInterceptor(transactionManager, useCaseTransactionAttributes);
+    }
+
+    /**
+     * Transaction attributes of the use case methods by name; also tells reads from writes.
+     */
+    @Bean
+    public TransactionAttributeSource useCaseTransactionAttributes() {
+        DefaultTransactionAttribute readOnly = new DefaultTransactionAttribute();
+        readOnly.setReadOnly(true);
+        
+        NameMatchTransactionAttributeSource attributeSource = new NameMatchTransactionAttributeSource();
+        attributeSource.addTransactionalMethod("get*", readOnly);
+        attributeSource.addTransactionalMethod("search*", readOnly);
+        attributeSource.addTransactionalMethod("export*", readOnly);
+        attributeSource.addTransactionalMethod("*", new DefaultTransactionAttribute());
+        return attributeSource;
+    }
+
+    /**
+     * Alert index shared by the pantry use cases, loaded from the repository on startup.
+     */
+    @Bean(initMethod = "rebuild")
+    public PantryAlertIndex pantryAlertIndex(PantryItemRepository pantryItemRepository,
+                                             ProductRepository productRepository, ChangeEvents changeEvents,
+                                             PantryConfig pantryConfig) {
+        return new TransactionAwarePantryAlertIndex(pantryItemRepository, productRepository, changeEvents,
+                pantryConfig.getLowStockThreshold());
+    }
+
+    /**
+     * Change events for live clients, sent once the use case that published them has committed.
+     */
+    @Bean
+    public ChangeEvents changeEvents(PantryConfig pantryConfig) {
+        return new TransactionAwareChangeEvents(pantryConfig.getExpiringSoonDays());
+    }
+
+    /**
+     * Versions of the pantry, catalog and shopping list, moved by the use cases once their changes commit.
+     */
+    @Bean
+    public AggregateVersions aggregateVersions(SingleFlightInterceptor readCoalescingInterceptor) {
+        return new TransactionAwareAggregateVersions(readCoalescingInterceptor);
+    }
+
+    @Bean
+    public ProductManagementUseCase productManagementUseCase(ProductRepository productRepository,
+                                                             PantryAlertIndex pantryAlertIndex,
+                                                             AggregateVersions aggregateVersions) {
+        return new ProductManagementUseCase(productRepository, pantryAlertIndex, aggregateVersions);
     }
 
     @Bean
     public PantryManagementUseCase pantryManagementUseCase(PantryItemRepository pantryItemRepository,
-                                                           ProductRepository productRepository) {
-        return new PantryManagementUseCase(pantryItemRepository, productRepository);
+                                                           ProductRepository productRepository,
+                                                           PantryAlertIndex pantryAlertIndex,
+                                                           AggregateVersions aggregateVersions,
+                                                           ChangeEvents changeEvents) {
+        return new PantryManagementUseCase(pantryItemRepository, productRepository, pantryAlertIndex,
+                aggregateVersions, changeEvents);
     }
 
     @Bean
-    public ConsumePantryItemUseCase consumePantryItemUseCase(PantryItemRepository pantryItemRepository) {
-        return new ConsumePantryItemUseCase(pantryItemRepository);
+    public ConsumePantryItemUseCase consumePantryItemUseCase(PantryItemRepository pantryItemRepository,
+                                                             ProductRepository productRepository,
+                                                             PantryAlertIndex pantryAlertIndex,
+                                                             AggregateVersions aggregateVersions,
+                                                             ChangeEvents changeEvents) {
+        return new ConsumePantryItemUseCase(pantryItemRepository, productRepository, pantryAlertIndex,
+                aggregateVersions, changeEvents);
     }
 
     @Bean
-    public DiscardPantryItemUseCase discardPantryItemUseCase(PantryItemRepository pantryItemRepository) {
-        return new DiscardPantryItemUseCase(pantryItemRepository);
+    public DiscardPantryItemUseCase discardPantryItemUseCase(PantryItemRepository pantryItemRepository,
+                                                             PantryAlertIndex pantryAlertIndex,
+                                                             AggregateVersions aggregateVersions,
+                                                             ChangeEvents changeEvents) {
+        return new DiscardPantryItemUseCase(pantryItemRepository, pantryAlertIndex, aggregateVersions, changeEvents);
     }
 
     @Bean
     public ShoppingListManagementUseCase shoppingListManagementUseCase(
             ShoppingListItemRepository shoppingListItemRepository,
-            ProductRepository productRepository) {
-        return new ShoppingListManagementUseCase(shoppingListItemRepository, productRepository);
+            ProductRepository productRepository,
+            AggregateVersions aggregateVersions,
+            ChangeEvents changeEvents) {
+        return new ShoppingListManagementUseCase(shoppingListItemRepository, productRepository, aggregateVersions,
+                changeEvents);
+    }
+
+    @Bean
+    public CheckoutUseCase checkoutUseCase(ShoppingListItemRepository shoppingListItemRepository,
+                                           PantryItemRepository pantryItemRepository,
+                                           PantryAlertIndex pantryAlertIndex,
+                                           AggregateVersions aggregateVersions,
+                                           ChangeEvents changeEvents) {
+        return new CheckoutUseCase(shoppingListItemRepository, pantryItemRepository, pantryAlertIndex,
+                aggregateVersions, changeEvents);
     }
 
     @Bean
     public DashboardUseCase dashboardUseCase(PantryItemRepository pantryItemRepository,
                                              ShoppingListItemRepository shoppingListItemRepository,
+                                             PantryAlertIndex pantryAlertIndex,
+                                             AggregateVersions aggregateVersions,
+                                             ChangeEvents changeEvents,
                                              PantryConfig pantryConfig) {
         return new DashboardUseCase(
                 pantryItemRepository, 
                 shoppingListItemRepository,
-                pantryConfig.getExpiringSoonDays(),
-                pantryConfig.getLowStockThreshold()
+                pantryAlertIndex,
+                aggregateVersions,
+                changeEvents,
+                pantryConfig.getExpiringSoonDays()
         );
     }
+
+    @Bean
+    public SyncUseCase syncUseCase(ChangeLogRepository changeLogRepository,
+                                   ProductRepository productRepository,
+                                   PantryItemRepository pantryItemRepository,
+                                   ShoppingListItemRepository shoppingListItemRepository,
+                                   SyncConfig syncConfig) {
+        return new SyncUseCase(changeLogRepository, productRepository, pantryItemRepository,
+                shoppingListItemRepository, syncConfig.getClientTtl());
+    }
 }
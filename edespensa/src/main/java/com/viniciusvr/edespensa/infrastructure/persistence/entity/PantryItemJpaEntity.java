@@ -1,20 +1,29 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 
 /**
  * JPA entity for PantryItem.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "pantry_items")
+@NamedEntityGraph(name = PantryItemJpaEntity.WITH_PRODUCT, attributeNodes = @NamedAttributeNode("product"))
 public class PantryItemJpaEntity {
 
+    /**
+     * Fetch plan that loads the product in the same query as the item.
+     */
+    public static final String WITH_PRODUCT = "PantryItemJpaEntity.withProduct";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pantry_items_seq")
+    @SequenceGenerator(name = "pantry_items_seq", sequenceName = "pantry_items_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private ProductJpaEntity product;
 
@@ -31,6 +40,12 @@ public class PantryItemJpaEntity {
 
     private String notes;
 
+    /**
+     * Checked and incremented by every update, so a concurrent change is detected instead of overwritten.
+     */
+    @Version
+    private Long version;
+
     public PantryItemJpaEntity() {
     }
 
@@ -100,4 +115,12 @@ public class PantryItemJpaEntity {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -1,16 +1,19 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * JPA entity for Product.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "products")
 public class ProductJpaEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -27,16 +30,25 @@ public class ProductJpaEntity {
     @Column(name = "track_expiration")
     private boolean trackExpiration;
 
+    @Column(name = "minimum_quantity")
+    private Double minimumQuantity;
+
+    @Column(name = "target_quantity")
+    private Double targetQuantity;
+
     public ProductJpaEntity() {
     }
 
-    public ProductJpaEntity(Long id, String name, String category, String unit, String description, boolean trackExpiration) {
+    public ProductJpaEntity(Long id, String name, String category, String unit, String description, boolean trackExpiration,
+                            Double minimumQuantity, Double targetQuantity) {
         this.id = id;
         this.name = name;
         this.category = category;
         this.unit = unit;
         this.description = description;
         this.trackExpiration = trackExpiration;
+        this.minimumQuantity = minimumQuantity;
+        this.targetQuantity = targetQuantity;
     }
 
     public Long getId() {
@@ -86,4 +98,20 @@ public class ProductJpaEntity {
     public void setTrackExpiration(boolean trackExpiration) {
         this.trackExpiration = trackExpiration;
     }
+
+    public Double getMinimumQuantity() {
+        return minimumQuantity;
+    }
+
+    public void setMinimumQuantity(Double minimumQuantity) {
+        this.minimumQuantity = minimumQuantity;
+    }
+
+    public Double getTargetQuantity() {
+        return targetQuantity;
+    }
+
+    public void setTargetQuantity(Double targetQuantity) {
+        this.targetQuantity = targetQuantity;
+    }
 }
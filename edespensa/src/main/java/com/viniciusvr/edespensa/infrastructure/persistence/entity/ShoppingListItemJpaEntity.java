@@ -1,15 +1,23 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 /**
  * JPA entity for ShoppingListItem.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "shopping_list_items")
+@NamedEntityGraph(name = ShoppingListItemJpaEntity.WITH_PRODUCT, attributeNodes = @NamedAttributeNode("product"))
 public class ShoppingListItemJpaEntity {
 
+    /**
+     * Fetch plan that loads the product in the same query as the item.
+     */
+    public static final String WITH_PRODUCT = "ShoppingListItemJpaEntity.withProduct";
+
     public enum Priority {
         LOW, MEDIUM, HIGH, URGENT
     }
@@ -19,10 +27,11 @@ public class ShoppingListItemJpaEntity {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_list_items_seq")
+    @SequenceGenerator(name = "shopping_list_items_seq", sequenceName = "shopping_list_items_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private ProductJpaEntity product;
 
@@ -44,6 +53,12 @@ public class ShoppingListItemJpaEntity {
     @Column(name = "auto_added")
     private boolean autoAdded;
 
+    /**
+     * Checked and incremented by every update, so a concurrent change is detected instead of overwritten.
+     */
+    @Version
+    private Long version;
+
     public ShoppingListItemJpaEntity() {
     }
 
@@ -122,4 +137,12 @@ public class ShoppingListItemJpaEntity {
     public void setAutoAdded(boolean autoAdded) {
         this.autoAdded = autoAdded;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -19,7 +19,7 @@ public class PantryItemMapper {
     public PantryItem toDomain(PantryItemJpaEntity jpaEntity) {
         if (jpaEntity == null) return null;
         
-        return new PantryItem(
+        PantryItem item = new PantryItem(
             jpaEntity.getId(),
             productMapper.toDomain(jpaEntity.getProduct()),
             jpaEntity.getQuantity(),
@@ -28,12 +28,14 @@ public class PantryItemMapper {
             jpaEntity.getLocation(),
             jpaEntity.getNotes()
         );
+        item.setVersion(jpaEntity.getVersion());
+        return item;
     }
 
     public PantryItemJpaEntity toJpaEntity(PantryItem domain) {
         if (domain == null) return null;
         
-        return new PantryItemJpaEntity(
+        PantryItemJpaEntity jpaEntity = new PantryItemJpaEntity(
             domain.getId(),
             productMapper.toJpaEntity(domain.getProduct()),
             domain.getQuantity(),
@@ -42,8 +44,13 @@ public class PantryItemMapper {
             domain.getLocation(),
             domain.getNotes()
         );
+        jpaEntity.setVersion(domain.getVersion());
+        return jpaEntity;
     }
 
+    /**
+     * Copies the changes onto a managed entity; the version is left to Hibernate.
+     */
     public void updateJpaEntity(PantryItemJpaEntity jpaEntity, PantryItem domain) {
         jpaEntity.setQuantity(domain.getQuantity());
         jpaEntity.setExpirationDate(domain.getExpirationDate());
@@ -19,7 +19,9 @@ public class ProductMapper {
             jpaEntity.getCategory(),
             jpaEntity.getUnit(),
             jpaEntity.getDescription(),
-            jpaEntity.isTrackExpiration()
+            jpaEntity.isTrackExpiration(),
+            jpaEntity.getMinimumQuantity(),
+            jpaEntity.getTargetQuantity()
         );
     }
 
@@ -32,7 +34,9 @@ public class ProductMapper {
             domain.getCategory(),
             domain.getUnit(),
             domain.getDescription(),
-            domain.isTrackExpiration()
+            domain.isTrackExpiration(),
+            domain.getMinimumQuantity(),
+            domain.getTargetQuantity()
         );
     }
 
@@ -42,5 +46,7 @@ public class ProductMapper {
         jpaEntity.setUnit(domain.getUnit());
         jpaEntity.setDescription(domain.getDescription());
         jpaEntity.setTrackExpiration(domain.isTrackExpiration());
+        jpaEntity.setMinimumQuantity(domain.getMinimumQuantity());
+        jpaEntity.setTargetQuantity(domain.getTargetQuantity());
     }
 }
@@ -19,7 +19,7 @@ public class ShoppingListItemMapper {
     public ShoppingListItem toDomain(ShoppingListItemJpaEntity jpaEntity) {
         if (jpaEntity == null) return null;
         
-        return new ShoppingListItem(
+        ShoppingListItem item = new ShoppingListItem(
             jpaEntity.getId(),
             productMapper.toDomain(jpaEntity.getProduct()),
             jpaEntity.getQuantity(),
@@ -29,12 +29,14 @@ public class ShoppingListItemMapper {
             jpaEntity.getNotes(),
             jpaEntity.isAutoAdded()
         );
+        item.setVersion(jpaEntity.getVersion());
+        return item;
     }
 
     public ShoppingListItemJpaEntity toJpaEntity(ShoppingListItem domain) {
         if (domain == null) return null;
         
-        return new ShoppingListItemJpaEntity(
+        ShoppingListItemJpaEntity jpaEntity = new ShoppingListItemJpaEntity(
             domain.getId(),
             productMapper.toJpaEntity(domain.getProduct()),
             domain.getQuantity(),
@@ -44,8 +46,13 @@ public class ShoppingListItemMapper {
             domain.getNotes(),
             domain.isAutoAdded()
         );
+        jpaEntity.setVersion(domain.getVersion());
+        return jpaEntity;
     }
 
+    /**
+     * Copies the changes onto a managed entity; the version is left to Hibernate.
+     */
     public void updateJpaEntity(ShoppingListItemJpaEntity jpaEntity, ShoppingListItem domain) {
         jpaEntity.setQuantity(domain.getQuantity());
         jpaEntity.setPriority(mapPriorityToJpa(domain.getPriority()));
@@ -0,0 +1,228 @@
+package com.viniciusvr.edespensa.infrastructure.persistence.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+import com.viniciusvr.edespensa.domain.repository.ProductQuery;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ProductRepository decorator that caches lookups by id and by name, including misses.
+ * Writes evict the affected entries right away and again when their transaction ends,
+ * so values read by a concurrent or rolled back transaction do not stay cached.
+ * Cached products are never handed out; callers always get a copy.
+ */
+public class CachingProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final Cache<Long, Optional<Product>> productsById;
+    private final Cache<String, Optional<Product>> productsByName;
+
+    public CachingProductRepository(ProductRepository delegate, long maximumSize, Duration expireAfterWrite,
+                                    MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.productsByName = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productsById, "products.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, productsByName, "products.byName");
+    }
+
+    @Override
+    public Product save(Product product) {
+        Long previousId = product.getId();
+        String name = product.getName();
+        Product saved = delegate.save(product);
+        if (previousId != null) {
+            evict(previousId, name);
+        } else {
+            evictInserted(saved.getId(), name);
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        List<Product> saved = delegate.saveAll(products);
+        for (Product product : saved) {
+            evictInserted(product.getId(), product.getName());
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return productsById.get(id, delegate::findById).map(CachingProductRepository::copyOf);
+    }
+
+    /**
+     * Serves cached ids and loads all the missing ones with a single query.
+     */
+    @Override
+    public List<Product> findAllById(Collection<Long> ids) {
+        return present(productsById.getAll(ids, this::loadByIds));
+    }
+
+    @Override
+    public Optional<Product> findByName(String name) {
+        return productsByName.get(name, delegate::findByName).map(CachingProductRepository::copyOf);
+    }
+
+    /**
+     * Serves cached names and loads all the missing ones with a single query.
+     */
+    @Override
+    public List<Product> findAllByNameIn(Collection<String> names) {
+        return present(productsByName.getAll(names, this::loadByNames));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public CursorPage<Product> findPage(ProductQuery query) {
+        return delegate.findPage(query);
+    }
+
+    @Override
+    public List<Product> findByCategory(String category) {
+        return delegate.findByCategory(category);
+    }
+
+    @Override
+    public List<Product> findAllWithMinimumQuantity() {
+        return delegate.findAllWithMinimumQuantity();
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String name) {
+        return delegate.findByNameContaining(name);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        evict(id, null);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public boolean existsByName(String name) {
+        return findByName(name).isPresent();
+    }
+
+    private Map<Long, Optional<Product>> loadByIds(Set<? extends Long> ids) {
+        Map<Long, Optional<Product>> loaded = new HashMap<>();
+        for (Long id : ids) {
+            loaded.put(id, Optional.empty());
+        }
+        for (Product product : delegate.findAllById(List.copyOf(ids))) {
+            loaded.put(product.getId(), Optional.of(product));
+        }
+        return loaded;
+    }
+
+    private Map<String, Optional<Product>> loadByNames(Set<? extends String> names) {
+        Map<String, Optional<Product>> loaded = new HashMap<>();
+        for (String name : names) {
+            loaded.put(name, Optional.empty());
+        }
+        for (Product product : delegate.findAllByNameIn(List.copyOf(names))) {
+            loaded.put(product.getName(), Optional.of(product));
+        }
+        return loaded;
+    }
+
+    private static List<Product> present(Map<?, Optional<Product>> cached) {
+        return cached.values().stream()
+                .flatMap(Optional::stream)
+                .map(CachingProductRepository::copyOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Drops the entries for a product id and name, now and once the current transaction completes.
+     */
+    private void evict(Long id, String name) {
+        evictNowAndAfterCompletion(() -> {
+            if (id != null) {
+                productsById.invalidate(id);
+                // A rename leaves the old name cached under this id
+                productsByName.asMap().values()
+                        .removeIf(cached -> cached.isPresent() && id.equals(cached.get().getId()));
+            }
+            if (name != null) {
+                productsByName.invalidate(name);
+            }
+        });
+    }
+
+    /**
+     * Drops the misses cached for a new product's id and name. No name can be cached under a new id,
+     * so there is nothing else to look for.
+     */
+    private void evictInserted(Long id, String name) {
+        evictNowAndAfterCompletion(() -> {
+            productsById.invalidate(id);
+            productsByName.invalidate(name);
+        });
+    }
+
+    private void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        return new Product(
+            product.getId(),
+            product.getName(),
+            product.getCategory(),
+            product.getUnit(),
+            product.getDescription(),
+            product.isTrackExpiration(),
+            product.getMinimumQuantity(),
+            product.getTargetQuantity()
+        );
+    }
+}
@@ -0,0 +1,137 @@
+package com.viniciusvr.edespensa.infrastructure.persistence.repository;
+
+import com.viniciusvr.edespensa.domain.repository.ChangeLogEntry.EntityType;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the changes the repositories write into the change log. Changes are collected for the
+ * whole transaction and numbered just before it commits, while holding the lock on the log head:
+ * sequence numbers then follow commit order, so a reader that has seen number n can never later
+ * find a smaller number appear. Only the latest change per entity is kept.
+ */
+@Component
+class ChangeLogRecorder {
+
+    private record Change(EntityType entityType, Long entityId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    ChangeLogRecorder(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    void upserted(EntityType entityType, Long id) {
+        record(entityType, List.of(id), false);
+    }
+
+    void upserted(EntityType entityType, Collection<Long> ids) {
+        record(entityType, ids, false);
+    }
+
+    void deleted(EntityType entityType, Long id) {
+        record(entityType, List.of(id), true);
+    }
+
+    void deleted(EntityType entityType, Collection<Long> ids) {
+        record(entityType, ids, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void record(EntityType entityType, Collection<Long> ids, boolean deleted) {
+        if (ids.isEmpty()) return;
+        Map<Change, Boolean> pending;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending = new LinkedHashMap<>();
+            put(pending, entityType, ids, deleted);
+            write(pending);
+            return;
+        }
+        
+        pending = (Map<Change, Boolean>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Change, Boolean> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Entity updates still pending lock their rows before the head row, the same order
+                    // as writers using direct statements, so two writers cannot deadlock on the two
+                    flush();
+                    write(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogRecorder.this);
+                }
+            });
+            pending = changes;
+        }
+        put(pending, entityType, ids, deleted);
+    }
+
+    private void flush() {
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            // Outside a repository nothing translates the exception; an optimistic lock conflict
+            // must surface as Spring's, as it does when the flush happens on commit
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    private static void put(Map<Change, Boolean> pending, EntityType entityType, Collection<Long> ids, boolean deleted) {
+        for (Long id : ids) {
+            // Re-insert so the entity is numbered by its last change
+            Change change = new Change(entityType, id);
+            pending.remove(change);
+            pending.put(change, deleted);
+        }
+    }
+
+    private void write(Map<Change, Boolean> changes) {
+        if (changes.isEmpty()) return;
+        // Locks the head row until commit; concurrent writers number their changes one after the other
+        jdbcTemplate.update("UPDATE change_log_head SET last_seq = last_seq + ? WHERE id = 1", changes.size());
+        long lastSeq = jdbcTemplate.queryForObject("SELECT last_seq FROM change_log_head WHERE id = 1", Long.class);
+        
+        List<Map.Entry<Change, Boolean>> entries = new ArrayList<>(changes.entrySet());
+        long firstSeq = lastSeq - entries.size() + 1;
+        jdbcTemplate.batchUpdate(
+                "MERGE INTO change_log (entity_type, entity_id, seq, deleted) KEY (entity_type, entity_id) VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Map.Entry<Change, Boolean> entry = entries.get(i);
+                        ps.setString(1, entry.getKey().entityType().name());
+                        ps.setLong(2, entry.getKey().entityId());
+                        ps.setLong(3, firstSeq + i);
+                        ps.setBoolean(4, entry.getValue());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                });
+    }
+}
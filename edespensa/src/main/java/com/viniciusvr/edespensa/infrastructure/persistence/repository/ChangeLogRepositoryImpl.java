@@ -0,0 +1,88 @@
+package com.viniciusvr.edespensa.infrastructure.persistence.repository;
+
+import com.viniciusvr.edespensa.domain.repository.ChangeLogEntry;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Implementation of ChangeLogRepository with plain JDBC; the log tables have no JPA entities.
+ */
+@Repository
+public class ChangeLogRepositoryImpl implements ChangeLogRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChangeLogRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<ChangeLogEntry> findSince(long seq, int limit) {
+        return jdbcTemplate.query(
+                "SELECT seq, entity_type, entity_id, deleted FROM change_log WHERE seq > ? ORDER BY seq FETCH FIRST ? ROWS ONLY",
+                (rs, rowNum) -> new ChangeLogEntry(
+                        rs.getLong("seq"),
+                        ChangeLogEntry.EntityType.valueOf(rs.getString("entity_type")),
+                        rs.getLong("entity_id"),
+                        rs.getBoolean("deleted")),
+                seq, limit);
+    }
+
+    @Override
+    public long findLastSeq() {
+        return jdbcTemplate.queryForObject("SELECT last_seq FROM change_log_head WHERE id = 1", Long.class);
+    }
+
+    @Override
+    public long findCompactedThrough() {
+        return jdbcTemplate.queryForObject("SELECT compacted_through FROM change_log_head WHERE id = 1", Long.class);
+    }
+
+    @Override
+    public OptionalLong findClientCursor(String clientId) {
+        List<Long> cursors = jdbcTemplate.queryForList(
+                "SELECT cursor_seq FROM sync_clients WHERE client_id = ?", Long.class, clientId);
+        return cursors.isEmpty() ? OptionalLong.empty() : OptionalLong.of(cursors.get(0));
+    }
+
+    /**
+     * Runs in a transaction of its own: sync reads record their cursor without becoming writes.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveClientCursor(String clientId, long seq, Instant seenAt) {
+        jdbcTemplate.update("MERGE INTO sync_clients (client_id, cursor_seq, last_seen) KEY (client_id) VALUES (?, ?, ?)",
+                clientId, seq, Timestamp.from(seenAt));
+    }
+
+    @Override
+    public OptionalLong findMinClientCursor() {
+        Long min = jdbcTemplate.queryForObject("SELECT MIN(cursor_seq) FROM sync_clients", Long.class);
+        return min != null ? OptionalLong.of(min) : OptionalLong.empty();
+    }
+
+    @Override
+    public int deleteClientsNotSeenSince(Instant instant) {
+        return jdbcTemplate.update("DELETE FROM sync_clients WHERE last_seen < ?", Timestamp.from(instant));
+    }
+
+    @Override
+    public int compactThrough(long seq) {
+        long compactedThrough = findCompactedThrough();
+        if (seq <= compactedThrough) return 0;
+        // Only the range not compacted yet, so the scan does not grow with the log
+        int removed = jdbcTemplate.update("DELETE FROM change_log WHERE seq > ? AND seq <= ? AND deleted",
+                compactedThrough, seq);
+        jdbcTemplate.update("UPDATE change_log_head SET compacted_through = ? WHERE id = 1 AND compacted_through < ?",
+                seq, seq);
+        return removed;
+    }
+}
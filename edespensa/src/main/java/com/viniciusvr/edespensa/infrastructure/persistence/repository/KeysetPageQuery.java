@@ -0,0 +1,139 @@
+package com.viniciusvr.edespensa.infrastructure.persistence.repository;
+
+import com.viniciusvr.edespensa.domain.exception.InvalidCursorException;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builder for keyset ("seek") pagination queries in JPQL.
+ * Rows are ordered by a sort key with the id as tie breaker, and each page starts strictly after
+ * the (sort key, id) pair carried by the cursor, so deep pages cost the same as the first one.
+ * Null sort values are always ordered last.
+ */
+class KeysetPageQuery<E> {
+
+    /**
+     * A sortable attribute: its JPQL path, how to read it from an entity and how to parse it from a cursor.
+     */
+    record SortKey<E>(String path, boolean nullable, Function<E, Object> reader, Function<String, Object> parser) {}
+
+    private final EntityManager entityManager;
+    private final Class<E> entityClass;
+    private final String alias;
+    private final String from;
+    private final Function<E, Long> idReader;
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new HashMap<>();
+
+    /**
+     * @param alias alias of the entity in the FROM clause
+     * @param from the FROM clause, including fetch joins
+     */
+    KeysetPageQuery(EntityManager entityManager, Class<E> entityClass, String alias, String from,
+                    Function<E, Long> idReader) {
+        this.entityManager = entityManager;
+        this.entityClass = entityClass;
+        this.alias = alias;
+        this.from = from;
+        this.idReader = idReader;
+    }
+
+    /**
+     * Adds a filter condition, skipped when the value is null.
+     */
+    KeysetPageQuery<E> where(String condition, String parameter, Object value) {
+        if (value != null) {
+            conditions.add(condition);
+            parameters.put(parameter, value);
+        }
+        return this;
+    }
+
+    CursorPage<E> fetch(SortKey<E> sortKey, boolean descending, String cursor, int limit) {
+        String idPath = alias + ".id";
+        String path = sortKey.path();
+        boolean byId = path.equals(idPath);
+        String after = descending ? " < " : " > ";
+        String direction = descending ? " DESC" : " ASC";
+
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = Cursor.decode(cursor);
+            parameters.put("cursorId", position.id());
+            if (byId) {
+                conditions.add(idPath + after + ":cursorId");
+            } else if (position.value() == null) {
+                conditions.add("(" + path + " IS NULL AND " + idPath + after + ":cursorId)");
+            } else {
+                parameters.put("cursorValue", parse(sortKey, position.value()));
+                conditions.add("(" + path + after + ":cursorValue"
+                        + " OR (" + path + " = :cursorValue AND " + idPath + after + ":cursorId)"
+                        + (sortKey.nullable() ? " OR " + path + " IS NULL" : "") + ")");
+            }
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT ").append(alias).append(" FROM ").append(from);
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY ");
+        if (!byId) {
+            jpql.append(path).append(direction).append(sortKey.nullable() ? " NULLS LAST" : "").append(", ");
+        }
+        jpql.append(idPath).append(direction);
+
+        TypedQuery<E> query = entityManager.createQuery(jpql.toString(), entityClass);
+        parameters.forEach(query::setParameter);
+        // One extra row tells whether another page follows
+        query.setMaxResults(limit + 1);
+
+        List<E> rows = query.getResultList();
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<E> page = rows.subList(0, limit);
+        E last = page.get(limit - 1);
+        Object lastValue = byId ? null : sortKey.reader().apply(last);
+        return new CursorPage<>(page, new Cursor(idReader.apply(last), lastValue == null ? null : lastValue.toString()).encode());
+    }
+
+    private Object parse(SortKey<E> sortKey, String value) {
+        try {
+            return sortKey.parser().apply(value);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Position after which the next page starts, encoded as URL-safe base64 of "id:" or "id:v&lt;value&gt;".
+     */
+    private record Cursor(Long id, String value) {
+
+        String encode() {
+            String raw = id + ":" + (value == null ? "" : "v" + value);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                Long id = Long.valueOf(raw.substring(0, separator));
+                String value = raw.length() > separator + 1 ? raw.substring(separator + 2) : null;
+                return new Cursor(id, value);
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException();
+            }
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.repository;
 
+import com.viniciusvr.edespensa.domain.repository.PantryItemView;
 import com.viniciusvr.edespensa.infrastructure.persistence.entity.PantryItemJpaEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for PantryItemJpaEntity.
@@ -15,20 +26,91 @@ import java.util.List;
 @Repository
 public interface PantryItemJpaRepository extends JpaRepository<PantryItemJpaEntity, Long> {
 
+    @Override
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
+    Optional<PantryItemJpaEntity> findById(Long id);
+
+    @Override
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
+    List<PantryItemJpaEntity> findAll();
+
+    @Override
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
+    List<PantryItemJpaEntity> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
     List<PantryItemJpaEntity> findByProductId(Long productId);
 
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
     @Query("SELECT p FROM PantryItemJpaEntity p WHERE LOWER(p.product.name) LIKE LOWER(CONCAT('%', :productName, '%'))")
     List<PantryItemJpaEntity> findByProductNameContaining(@Param("productName") String productName);
 
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
     List<PantryItemJpaEntity> findByExpirationDateBefore(LocalDate date);
 
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
     List<PantryItemJpaEntity> findByExpirationDateBetween(LocalDate startDate, LocalDate endDate);
 
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
     List<PantryItemJpaEntity> findByQuantityLessThanEqual(Double quantity);
 
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
     @Query("SELECT p FROM PantryItemJpaEntity p WHERE p.expirationDate IS NOT NULL AND p.expirationDate > CURRENT_DATE AND p.expirationDate <= :threshold")
     List<PantryItemJpaEntity> findExpiringSoon(@Param("threshold") LocalDate threshold);
 
+    @EntityGraph(PantryItemJpaEntity.WITH_PRODUCT)
     @Query("SELECT p FROM PantryItemJpaEntity p WHERE p.quantity <= :threshold")
     List<PantryItemJpaEntity> findLowStock(@Param("threshold") Double threshold);
+
+    @Query("SELECT new com.viniciusvr.edespensa.domain.repository.PantryItemView("
+            + "p.id, pr.id, pr.name, pr.category, pr.unit, pr.description, pr.trackExpiration, "
+            + "pr.minimumQuantity, pr.targetQuantity, "
+            + "p.quantity, p.expirationDate, p.addedDate, p.location, p.notes) "
+            + "FROM PantryItemJpaEntity p JOIN p.product pr ORDER BY p.id")
+    List<PantryItemView> findAllViews();
+
+    @Query("SELECT new com.viniciusvr.edespensa.domain.repository.PantryItemView("
+            + "p.id, pr.id, pr.name, pr.category, pr.unit, pr.description, pr.trackExpiration, "
+            + "pr.minimumQuantity, pr.targetQuantity, "
+            + "p.quantity, p.expirationDate, p.addedDate, p.location, p.notes) "
+            + "FROM PantryItemJpaEntity p JOIN p.product pr ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<PantryItemView> streamAllViews();
+
+    /**
+     * Item id with the id and name of its product.
+     */
+    interface ProductNameRow {
+        Long getId();
+        Long getProductId();
+        String getProductName();
+    }
+
+    @Query("SELECT p.id AS id, pr.id AS productId, pr.name AS productName "
+            + "FROM PantryItemJpaEntity p JOIN p.product pr WHERE p.id IN :ids")
+    List<ProductNameRow> findProductNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id AS id, pr.id AS productId, pr.name AS productName FROM PantryItemJpaEntity p JOIN p.product pr "
+            + "WHERE p.expirationDate < :date ORDER BY p.id")
+    List<ProductNameRow> findProductNamesByExpirationDateBefore(@Param("date") LocalDate date, Limit limit);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PantryItemJpaEntity p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PantryItemJpaEntity p SET p.quantity = p.quantity - :quantity, p.version = p.version + 1 WHERE p.id = :id AND p.quantity >= :quantity")
+    int consumeIfAvailable(@Param("id") Long id, @Param("quantity") Double quantity);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PantryItemJpaEntity p WHERE p.id = :id AND p.quantity <= 0")
+    int deleteIfDepleted(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PantryItemJpaEntity p WHERE p.id IN :ids AND p.quantity <= 0")
+    int deleteAllIfDepleted(@Param("ids") Collection<Long> ids);
 }
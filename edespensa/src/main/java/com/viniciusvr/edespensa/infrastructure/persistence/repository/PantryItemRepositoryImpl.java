@@ -1,17 +1,30 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.repository;
 
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
-import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogEntry.EntityType;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+import com.viniciusvr.edespensa.domain.repository.DeletedPantryItem;
+import com.viniciusvr.edespensa.domain.repository.LotDraw;
+import com.viniciusvr.edespensa.domain.repository.PantryItemQuery;
 import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.PantryItemView;
 import com.viniciusvr.edespensa.infrastructure.persistence.entity.PantryItemJpaEntity;
-import com.viniciusvr.edespensa.infrastructure.persistence.entity.ProductJpaEntity;
 import com.viniciusvr.edespensa.infrastructure.persistence.mapper.PantryItemMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of PantryItemRepository using Spring Data JPA.
@@ -19,38 +32,107 @@ import java.util.stream.Collectors;
 @Repository
 public class PantryItemRepositoryImpl implements PantryItemRepository {
 
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * Maximum rows removed by one bulk DELETE, so no single statement holds row locks for long.
+     */
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    private static final String CONSUME_IF_AVAILABLE_SQL =
+            "UPDATE pantry_items SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+
+    /**
+     * First-expired-first-out plan for drawing a quantity from a product's lots: a running total in
+     * expiration order tells what each lot holds before it, and only the lots reached before the
+     * quantity is covered are returned, with what they keep. Parameters: quantity, product id, quantity.
+     */
+    private static final String PLAN_FIRST_EXPIRING_SQL = """
+            SELECT id, version, quantity - LEAST(quantity, CAST(? AS DOUBLE PRECISION) - held_before) AS remaining, available
+            FROM (SELECT id, version, quantity, expiration_date,
+                         COALESCE(SUM(quantity) OVER (ORDER BY expiration_date ASC NULLS LAST, id
+                                                      ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS held_before,
+                         SUM(quantity) OVER () AS available
+                  FROM pantry_items
+                  WHERE product_id = ? AND quantity > 0) lots
+            WHERE held_before < ?
+            ORDER BY expiration_date ASC NULLS LAST, id
+            """;
+
+    private static final String LOCK_PRODUCT_SQL = "SELECT id FROM products WHERE id = ? FOR UPDATE";
+
+    private static final String DRAW_LOT_SQL =
+            "UPDATE pantry_items SET quantity = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    private record LotPlan(long id, long version, double remaining, double available) {
+    }
+
     private final PantryItemJpaRepository jpaRepository;
     private final ProductJpaRepository productJpaRepository;
     private final PantryItemMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ChangeLogRecorder changeLog;
 
     public PantryItemRepositoryImpl(PantryItemJpaRepository jpaRepository, 
                                     ProductJpaRepository productJpaRepository,
-                                    PantryItemMapper mapper) {
+                                    PantryItemMapper mapper,
+                                    JdbcTemplate jdbcTemplate,
+                                    EntityManager entityManager,
+                                    ChangeLogRecorder changeLog) {
         this.jpaRepository = jpaRepository;
         this.productJpaRepository = productJpaRepository;
         this.mapper = mapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.changeLog = changeLog;
     }
 
     @Override
     public PantryItem save(PantryItem pantryItem) {
-        PantryItemJpaEntity jpaEntity;
-        
         if (pantryItem.getId() != null) {
-            jpaEntity = jpaRepository.findById(pantryItem.getId())
-                    .orElse(mapper.toJpaEntity(pantryItem));
-            mapper.updateJpaEntity(jpaEntity, pantryItem);
-        } else {
-            jpaEntity = mapper.toJpaEntity(pantryItem);
-            // Ensure the product is managed
-            if (pantryItem.getProduct() != null && pantryItem.getProduct().getId() != null) {
-                ProductJpaEntity productJpa = productJpaRepository.findById(pantryItem.getProduct().getId())
-                        .orElseThrow(() -> new EntityNotFoundException("Product", pantryItem.getProduct().getId()));
-                jpaEntity.setProduct(productJpa);
+            // No lookup: inside the use case transaction the reference is the already loaded entity,
+            // and dynamic update writes only the columns that changed
+            PantryItemJpaEntity jpaEntity = jpaRepository.getReferenceById(pantryItem.getId());
+            if (pantryItem.getVersion() != null && !pantryItem.getVersion().equals(jpaEntity.getVersion())) {
+                // Read before a change that is already stored; writing it would undo that change
+                throw new ObjectOptimisticLockingFailureException(PantryItemJpaEntity.class, pantryItem.getId());
             }
+            mapper.updateJpaEntity(jpaEntity, pantryItem);
+            // Flushed now so the item carries the version of the state it stored, not the one it was read at
+            jpaRepository.flush();
+            pantryItem.setVersion(jpaEntity.getVersion());
+            changeLog.upserted(EntityType.PANTRY_ITEM, pantryItem.getId());
+            return pantryItem;
         }
         
+        PantryItemJpaEntity jpaEntity = mapper.toJpaEntity(pantryItem);
+        // Attach the product by reference, no lookup needed
+        jpaEntity.setProduct(productJpaRepository.getReferenceById(pantryItem.getProduct().getId()));
         PantryItemJpaEntity saved = jpaRepository.save(jpaEntity);
-        return mapper.toDomain(saved);
+        pantryItem.setId(saved.getId());
+        pantryItem.setVersion(saved.getVersion());
+        changeLog.upserted(EntityType.PANTRY_ITEM, pantryItem.getId());
+        return pantryItem;
+    }
+
+    @Override
+    public List<PantryItem> saveAll(List<PantryItem> pantryItems) {
+        List<PantryItemJpaEntity> jpaEntities = new ArrayList<>(pantryItems.size());
+        for (PantryItem pantryItem : pantryItems) {
+            PantryItemJpaEntity jpaEntity = mapper.toJpaEntity(pantryItem);
+            // Attach the product by reference, no lookup needed
+            jpaEntity.setProduct(productJpaRepository.getReferenceById(pantryItem.getProduct().getId()));
+            jpaEntities.add(jpaEntity);
+        }
+        
+        List<PantryItemJpaEntity> saved = jpaRepository.saveAll(jpaEntities);
+        for (int i = 0; i < pantryItems.size(); i++) {
+            pantryItems.get(i).setId(saved.get(i).getId());
+            pantryItems.get(i).setVersion(saved.get(i).getVersion());
+        }
+        changeLog.upserted(EntityType.PANTRY_ITEM, pantryItems.stream().map(PantryItem::getId).toList());
+        return pantryItems;
     }
 
     @Override
@@ -65,6 +147,52 @@ public class PantryItemRepositoryImpl implements PantryItemRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<PantryItemView> findAllViews() {
+        return jpaRepository.findAllViews();
+    }
+
+    @Override
+    public Stream<PantryItemView> streamAllViews() {
+        return jpaRepository.streamAllViews();
+    }
+
+    @Override
+    public List<PantryItem> findAllById(Collection<Long> ids) {
+        return jpaRepository.findAllById(ids).stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CursorPage<PantryItem> findPage(PantryItemQuery query) {
+        CursorPage<PantryItemJpaEntity> page = new KeysetPageQuery<>(entityManager, PantryItemJpaEntity.class, "p",
+                        "PantryItemJpaEntity p JOIN FETCH p.product pr", PantryItemJpaEntity::getId)
+                .where("p.location = :location", "location", query.location())
+                .where("pr.category = :category", "category", query.category())
+                .where("p.expirationDate >= :expiresFrom", "expiresFrom", query.expiresFrom())
+                .where("p.expirationDate <= :expiresTo", "expiresTo", query.expiresTo())
+                .where("pr.id IN :productIds", "productIds", query.productIds())
+                .fetch(sortKey(query.sort()), query.descending(), query.cursor(), query.limit());
+        
+        return new CursorPage<>(
+                page.items().stream().map(mapper::toDomain).collect(Collectors.toList()),
+                page.nextCursor()
+        );
+    }
+
+    private static KeysetPageQuery.SortKey<PantryItemJpaEntity> sortKey(PantryItemQuery.Sort sort) {
+        return switch (sort) {
+            case ID -> new KeysetPageQuery.SortKey<>("p.id", false, PantryItemJpaEntity::getId, Long::valueOf);
+            case EXPIRATION_DATE -> new KeysetPageQuery.SortKey<>("p.expirationDate", true,
+                    PantryItemJpaEntity::getExpirationDate, LocalDate::parse);
+            case QUANTITY -> new KeysetPageQuery.SortKey<>("p.quantity", false,
+                    PantryItemJpaEntity::getQuantity, Double::valueOf);
+            case PRODUCT_NAME -> new KeysetPageQuery.SortKey<>("pr.name", false,
+                    item -> item.getProduct().getName(), value -> value);
+        };
+    }
+
     @Override
     public List<PantryItem> findByProductId(Long productId) {
         return jpaRepository.findByProductId(productId).stream()
@@ -115,14 +243,143 @@ public class PantryItemRepositoryImpl implements PantryItemRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public boolean consumeIfAvailable(Long id, Double quantity) {
+        if (jpaRepository.consumeIfAvailable(id, quantity) == 0) return false;
+        changeLog.upserted(EntityType.PANTRY_ITEM, id);
+        return true;
+    }
+
+    @Override
+    public boolean deleteIfDepleted(Long id) {
+        if (jpaRepository.deleteIfDepleted(id) == 0) return false;
+        changeLog.deleted(EntityType.PANTRY_ITEM, id);
+        return true;
+    }
+
+    @Override
+    public List<Long> consumeAllIfAvailable(Map<Long, Double> quantitiesById) {
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(quantitiesById.entrySet());
+        
+        // Plain JDBC so the conditional updates go out as one batch; keep the persistence context in sync
+        jpaRepository.flush();
+        int[][] updateCounts = jdbcTemplate.batchUpdate(CONSUME_IF_AVAILABLE_SQL, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setDouble(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setDouble(3, entry.getValue());
+        });
+        entityManager.clear();
+        
+        List<Long> rejectedIds = new ArrayList<>();
+        List<Long> consumedIds = new ArrayList<>(entries.size());
+        int index = 0;
+        for (int[] batch : updateCounts) {
+            for (int updated : batch) {
+                if (updated == 0) {
+                    rejectedIds.add(entries.get(index).getKey());
+                } else {
+                    consumedIds.add(entries.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        changeLog.upserted(EntityType.PANTRY_ITEM, consumedIds);
+        return rejectedIds;
+    }
+
+    @Override
+    public LotDraw consumeFirstExpiring(Long productId, Double quantity) {
+        // Plain JDBC: the plan needs a window function and the updates go out as one batch
+        jpaRepository.flush();
+        // Draws of one product queue up here rather than all racing for the same first lot; writers
+        // touching a single lot still go through the version check
+        jdbcTemplate.query(LOCK_PRODUCT_SQL, rs -> { }, productId);
+        List<LotPlan> plan = jdbcTemplate.query(PLAN_FIRST_EXPIRING_SQL,
+                (rs, rowNum) -> new LotPlan(rs.getLong("id"), rs.getLong("version"),
+                        rs.getDouble("remaining"), rs.getDouble("available")),
+                quantity, productId, quantity);
+        double available = plan.isEmpty() ? 0 : plan.get(0).available();
+        if (available < quantity) {
+            return new LotDraw(List.of(), available);
+        }
+        
+        int[][] updateCounts = jdbcTemplate.batchUpdate(DRAW_LOT_SQL, plan, BATCH_SIZE, (ps, lot) -> {
+            ps.setDouble(1, lot.remaining());
+            ps.setLong(2, lot.id());
+            ps.setLong(3, lot.version());
+        });
+        entityManager.clear();
+        
+        int index = 0;
+        for (int[] batch : updateCounts) {
+            for (int updated : batch) {
+                if (updated == 0) {
+                    // Changed or removed since the plan was read; the transaction must not commit half a draw
+                    throw new ObjectOptimisticLockingFailureException(PantryItemJpaEntity.class, plan.get(index).id());
+                }
+                index++;
+            }
+        }
+        List<Long> lotIds = plan.stream().map(LotPlan::id).toList();
+        changeLog.upserted(EntityType.PANTRY_ITEM, lotIds);
+        return new LotDraw(lotIds, available);
+    }
+
+    @Override
+    public int deleteAllIfDepleted(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        int deleted = jpaRepository.deleteAllIfDepleted(ids);
+        // Callers pass items they depleted in this transaction, which still holds their row locks
+        changeLog.deleted(EntityType.PANTRY_ITEM, ids);
+        return deleted;
+    }
+
+    @Override
+    public Map<Long, DeletedPantryItem> deleteAllById(Collection<Long> ids) {
+        Map<Long, DeletedPantryItem> deleted = new LinkedHashMap<>();
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            deleteRows(jpaRepository.findProductNamesByIdIn(chunk), deleted);
+        }
+        return deleted;
+    }
+
+    @Override
+    public Map<Long, DeletedPantryItem> deleteExpiredBefore(LocalDate date) {
+        Map<Long, DeletedPantryItem> deleted = new LinkedHashMap<>();
+        List<PantryItemJpaRepository.ProductNameRow> rows;
+        do {
+            rows = jpaRepository.findProductNamesByExpirationDateBefore(date, Limit.of(DELETE_CHUNK_SIZE));
+            deleteRows(rows, deleted);
+            // A short selection is the last one; a row deleted concurrently must not end the loop early
+        } while (rows.size() == DELETE_CHUNK_SIZE);
+        return deleted;
+    }
+
+    /**
+     * Deletes the selected rows with one statement and records their products.
+     */
+    private void deleteRows(List<PantryItemJpaRepository.ProductNameRow> rows, Map<Long, DeletedPantryItem> deleted) {
+        if (rows.isEmpty()) return;
+        for (PantryItemJpaRepository.ProductNameRow row : rows) {
+            deleted.put(row.getId(), new DeletedPantryItem(row.getProductId(), row.getProductName()));
+        }
+        List<Long> ids = rows.stream().map(PantryItemJpaRepository.ProductNameRow::getId).toList();
+        changeLog.deleted(EntityType.PANTRY_ITEM, ids);
+        jpaRepository.deleteByIdIn(ids);
+    }
+
     @Override
     public void deleteById(Long id) {
         jpaRepository.deleteById(id);
+        changeLog.deleted(EntityType.PANTRY_ITEM, id);
     }
 
     @Override
     public void delete(PantryItem pantryItem) {
         jpaRepository.deleteById(pantryItem.getId());
+        changeLog.deleted(EntityType.PANTRY_ITEM, pantryItem.getId());
     }
 
     @Override
@@ -1,13 +1,19 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.repository;
 
+import com.viniciusvr.edespensa.domain.entity.Product;
 import com.viniciusvr.edespensa.infrastructure.persistence.entity.ProductJpaEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for ProductJpaEntity.
@@ -17,10 +23,23 @@ public interface ProductJpaRepository extends JpaRepository<ProductJpaEntity, Lo
 
     Optional<ProductJpaEntity> findByName(String name);
 
+    List<ProductJpaEntity> findByNameIn(Collection<String> names);
+
     List<ProductJpaEntity> findByCategory(String category);
 
+    List<ProductJpaEntity> findByMinimumQuantityIsNotNull();
+
     @Query("SELECT p FROM ProductJpaEntity p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<ProductJpaEntity> findByNameContaining(@Param("name") String name);
 
     boolean existsByName(String name);
+
+    /**
+     * Builds the domain products directly, so streamed rows never enter the persistence context.
+     */
+    @Query("SELECT new com.viniciusvr.edespensa.domain.entity.Product("
+            + "p.id, p.name, p.category, p.unit, p.description, p.trackExpiration, p.minimumQuantity, p.targetQuantity) "
+            + "FROM ProductJpaEntity p ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Product> streamAll();
 }
@@ -1,14 +1,20 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.repository;
 
 import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogEntry.EntityType;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+import com.viniciusvr.edespensa.domain.repository.ProductQuery;
 import com.viniciusvr.edespensa.domain.repository.ProductRepository;
 import com.viniciusvr.edespensa.infrastructure.persistence.entity.ProductJpaEntity;
 import com.viniciusvr.edespensa.infrastructure.persistence.mapper.ProductMapper;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of ProductRepository using Spring Data JPA.
@@ -18,26 +24,30 @@ public class ProductRepositoryImpl implements ProductRepository {
 
     private final ProductJpaRepository jpaRepository;
     private final ProductMapper mapper;
+    private final EntityManager entityManager;
+    private final ChangeLogRecorder changeLog;
 
-    public ProductRepositoryImpl(ProductJpaRepository jpaRepository, ProductMapper mapper) {
+    public ProductRepositoryImpl(ProductJpaRepository jpaRepository, ProductMapper mapper, EntityManager entityManager,
+                                 ChangeLogRecorder changeLog) {
         this.jpaRepository = jpaRepository;
         this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.changeLog = changeLog;
     }
 
     @Override
     public Product save(Product product) {
-        ProductJpaEntity jpaEntity;
-        
         if (product.getId() != null) {
-            jpaEntity = jpaRepository.findById(product.getId())
-                    .orElse(mapper.toJpaEntity(product));
-            mapper.updateJpaEntity(jpaEntity, product);
-        } else {
-            jpaEntity = mapper.toJpaEntity(product);
+            // No lookup: inside the use case transaction the reference is the already loaded entity,
+            // and dynamic update writes only the columns that changed
+            mapper.updateJpaEntity(jpaRepository.getReferenceById(product.getId()), product);
+            changeLog.upserted(EntityType.PRODUCT, product.getId());
+            return product;
         }
         
-        ProductJpaEntity saved = jpaRepository.save(jpaEntity);
-        return mapper.toDomain(saved);
+        product.setId(jpaRepository.save(mapper.toJpaEntity(product)).getId());
+        changeLog.upserted(EntityType.PRODUCT, product.getId());
+        return product;
     }
 
     @Override
@@ -45,11 +55,41 @@ public class ProductRepositoryImpl implements ProductRepository {
         return jpaRepository.findById(id).map(mapper::toDomain);
     }
 
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        List<ProductJpaEntity> saved = jpaRepository.saveAll(
+                products.stream().map(mapper::toJpaEntity).collect(Collectors.toList()));
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(saved.get(i).getId());
+        }
+        changeLog.upserted(EntityType.PRODUCT, products.stream().map(Product::getId).toList());
+        return products;
+    }
+
+    @Override
+    public List<Product> findAllById(Collection<Long> ids) {
+        return jpaRepository.findAllById(ids).stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return jpaRepository.streamAll();
+    }
+
     @Override
     public Optional<Product> findByName(String name) {
         return jpaRepository.findByName(name).map(mapper::toDomain);
     }
 
+    @Override
+    public List<Product> findAllByNameIn(Collection<String> names) {
+        return jpaRepository.findByNameIn(names).stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<Product> findAll() {
         return jpaRepository.findAll().stream()
@@ -57,6 +97,29 @@ public class ProductRepositoryImpl implements ProductRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPage<Product> findPage(ProductQuery query) {
+        String namePattern = query.nameContains() != null ? "%" + query.nameContains().toLowerCase() + "%" : null;
+        CursorPage<ProductJpaEntity> page = new KeysetPageQuery<>(entityManager, ProductJpaEntity.class, "p",
+                        "ProductJpaEntity p", ProductJpaEntity::getId)
+                .where("p.category = :category", "category", query.category())
+                .where("LOWER(p.name) LIKE :namePattern", "namePattern", namePattern)
+                .fetch(sortKey(query.sort()), query.descending(), query.cursor(), query.limit());
+        
+        return new CursorPage<>(
+                page.items().stream().map(mapper::toDomain).collect(Collectors.toList()),
+                page.nextCursor()
+        );
+    }
+
+    private static KeysetPageQuery.SortKey<ProductJpaEntity> sortKey(ProductQuery.Sort sort) {
+        return switch (sort) {
+            case ID -> new KeysetPageQuery.SortKey<>("p.id", false, ProductJpaEntity::getId, Long::valueOf);
+            case NAME -> new KeysetPageQuery.SortKey<>("p.name", false, ProductJpaEntity::getName, value -> value);
+            case CATEGORY -> new KeysetPageQuery.SortKey<>("p.category", false, ProductJpaEntity::getCategory, value -> value);
+        };
+    }
+
     @Override
     public List<Product> findByCategory(String category) {
         return jpaRepository.findByCategory(category).stream()
@@ -64,6 +127,13 @@ public class ProductRepositoryImpl implements ProductRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<Product> findAllWithMinimumQuantity() {
+        return jpaRepository.findByMinimumQuantityIsNotNull().stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<Product> findByNameContaining(String name) {
         return jpaRepository.findByNameContaining(name).stream()
@@ -74,6 +144,7 @@ public class ProductRepositoryImpl implements ProductRepository {
     @Override
     public void deleteById(Long id) {
         jpaRepository.deleteById(id);
+        changeLog.deleted(EntityType.PRODUCT, id);
     }
 
     @Override
@@ -1,13 +1,21 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.repository;
 
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemView;
 import com.viniciusvr.edespensa.infrastructure.persistence.entity.ShoppingListItemJpaEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for ShoppingListItemJpaEntity.
@@ -15,16 +23,69 @@ import java.util.Optional;
 @Repository
 public interface ShoppingListItemJpaRepository extends JpaRepository<ShoppingListItemJpaEntity, Long> {
 
+    @Override
+    @EntityGraph(ShoppingListItemJpaEntity.WITH_PRODUCT)
+    Optional<ShoppingListItemJpaEntity> findById(Long id);
+
+    @Override
+    @EntityGraph(ShoppingListItemJpaEntity.WITH_PRODUCT)
+    List<ShoppingListItemJpaEntity> findAll();
+
+    @Override
+    @EntityGraph(ShoppingListItemJpaEntity.WITH_PRODUCT)
+    List<ShoppingListItemJpaEntity> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(ShoppingListItemJpaEntity.WITH_PRODUCT)
     List<ShoppingListItemJpaEntity> findByStatus(ShoppingListItemJpaEntity.Status status);
 
+    @EntityGraph(ShoppingListItemJpaEntity.WITH_PRODUCT)
     @Query("SELECT s FROM ShoppingListItemJpaEntity s WHERE s.status = 'PENDING'")
     List<ShoppingListItemJpaEntity> findPendingItems();
 
+    @EntityGraph(ShoppingListItemJpaEntity.WITH_PRODUCT)
     List<ShoppingListItemJpaEntity> findByProductId(Long productId);
 
+    @EntityGraph(ShoppingListItemJpaEntity.WITH_PRODUCT)
     @Query("SELECT s FROM ShoppingListItemJpaEntity s WHERE s.product.id = :productId AND s.status = 'PENDING'")
     Optional<ShoppingListItemJpaEntity> findPendingByProductId(@Param("productId") Long productId);
 
-    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM ShoppingListItemJpaEntity s WHERE s.product.id = :productId AND s.status = 'PENDING'")
-    boolean existsPendingByProductId(@Param("productId") Long productId);
+    @Query("SELECT s.id FROM ShoppingListItemJpaEntity s WHERE s.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Id of a pending item with the id of its product.
+     */
+    interface PendingIdRow {
+        Long getId();
+        Long getProductId();
+    }
+
+    @Query("SELECT s.id AS id, s.product.id AS productId FROM ShoppingListItemJpaEntity s "
+            + "WHERE s.status = 'PENDING' AND s.product.id IN :productIds")
+    List<PendingIdRow> findPendingIdsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT s.id FROM ShoppingListItemJpaEntity s WHERE s.status = :status ORDER BY s.id")
+    List<Long> findIdsByStatus(@Param("status") ShoppingListItemJpaEntity.Status status, Limit limit);
+
+    @Query("SELECT new com.viniciusvr.edespensa.domain.repository.ShoppingListItemView("
+            + "s.id, pr.id, pr.name, pr.category, pr.unit, pr.description, pr.trackExpiration, "
+            + "pr.minimumQuantity, pr.targetQuantity, "
+            + "s.quantity, CAST(s.priority AS String), CAST(s.status AS String), s.addedAt, s.notes, s.autoAdded) "
+            + "FROM ShoppingListItemJpaEntity s JOIN s.product pr ORDER BY s.id")
+    List<ShoppingListItemView> findAllViews();
+
+    @Query("SELECT new com.viniciusvr.edespensa.domain.repository.ShoppingListItemView("
+            + "s.id, pr.id, pr.name, pr.category, pr.unit, pr.description, pr.trackExpiration, "
+            + "pr.minimumQuantity, pr.targetQuantity, "
+            + "s.quantity, CAST(s.priority AS String), CAST(s.status AS String), s.addedAt, s.notes, s.autoAdded) "
+            + "FROM ShoppingListItemJpaEntity s JOIN s.product pr ORDER BY s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ShoppingListItemView> streamAllViews();
+
+    @Query("SELECT new com.viniciusvr.edespensa.domain.repository.ShoppingListItemView("
+            + "s.id, pr.id, pr.name, pr.category, pr.unit, pr.description, pr.trackExpiration, "
+            + "pr.minimumQuantity, pr.targetQuantity, "
+            + "s.quantity, CAST(s.priority AS String), CAST(s.status AS String), s.addedAt, s.notes, s.autoAdded) "
+            + "FROM ShoppingListItemJpaEntity s JOIN s.product pr WHERE s.status = :status ORDER BY s.id")
+    List<ShoppingListItemView> findViewsByStatus(@Param("status") ShoppingListItemJpaEntity.Status status);
 }
@@ -1,16 +1,37 @@
 package com.viniciusvr.edespensa.infrastructure.persistence.repository;
 
 import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
-import com.viniciusvr.edespensa.domain.exception.EntityNotFoundException;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogEntry.EntityType;
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemQuery;
 import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
-import com.viniciusvr.edespensa.infrastructure.persistence.entity.ProductJpaEntity;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemView;
 import com.viniciusvr.edespensa.infrastructure.persistence.entity.ShoppingListItemJpaEntity;
 import com.viniciusvr.edespensa.infrastructure.persistence.mapper.ShoppingListItemMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of ShoppingListItemRepository using Spring Data JPA.
@@ -18,38 +39,134 @@ import java.util.stream.Collectors;
 @Repository
 public class ShoppingListItemRepositoryImpl implements ShoppingListItemRepository {
 
+    /**
+     * Maximum rows touched by one bulk DELETE or sent in one batch of updates, so no single statement
+     * holds row locks for long.
+     */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * One new item as a row to merge on the product's pending item. The unique index on
+     * pending_product_id, set only while an item is pending, is what makes the merge safe.
+     */
+    private static final String PENDING_SOURCE = """
+            MERGE INTO shopping_list_items t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS DOUBLE PRECISION), CAST(? AS VARCHAR(20)),
+                           CAST(? AS VARCHAR(20)), CAST(? AS TIMESTAMP(6)), CAST(? AS VARCHAR(255)), CAST(? AS BOOLEAN)))
+                s(product_id, quantity, priority, raise_to, added_at, notes, auto_added)
+            ON t.pending_product_id = s.product_id
+            """;
+
+    /**
+     * Inserts with an id drawn by the database from the entity's sequence. The drawn value is the
+     * whole allocation, so it never falls in a block of ids Hibernate hands out.
+     */
+    private static final String INSERT_NEW_PENDING = """
+            WHEN NOT MATCHED THEN INSERT (id, product_id, quantity, priority, status, added_at, notes, auto_added, version)
+                VALUES (NEXT VALUE FOR shopping_list_items_seq, s.product_id, s.quantity, s.priority, 'PENDING',
+                        s.added_at, s.notes, s.auto_added, 0)
+            """;
+
+    private static final String MERGE_PENDING = PENDING_SOURCE + """
+            WHEN MATCHED THEN UPDATE SET
+                quantity = COALESCE(t.quantity, 0) + s.quantity,
+                priority = CASE WHEN %s > %s THEN s.raise_to ELSE t.priority END,
+                version = t.version + 1
+            """.formatted(priorityRank("s.raise_to"), priorityRank("t.priority")) + INSERT_NEW_PENDING;
+
+    private static final String INSERT_PENDING_IF_ABSENT = PENDING_SOURCE + INSERT_NEW_PENDING;
+
+    /**
+     * Adds for one product queue up on its row. Without it, an add whose merge started before a
+     * concurrent insert of the pending item commits waits on that row's unique index entry, and the
+     * database reports the wait as a lock timeout rather than a duplicate key.
+     */
+    private static final String LOCK_PRODUCTS = "SELECT id FROM products WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    /**
+     * One statement per item rather than one set-based update, so the batch's update counts tell
+     * exactly which items were moved and which another transaction moved or changed first.
+     */
+    private static final String UPDATE_STATUS =
+            "UPDATE shopping_list_items SET status = ?, version = version + 1 WHERE id = ? AND status = ?";
+
+    private static final String UPDATE_STATUS_IF_UNCHANGED =
+            "UPDATE shopping_list_items SET status = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    /**
+     * One statement per item for the same reason: the counts tell which rows this transaction removed.
+     */
+    private static final String DELETE_WITH_STATUS = "DELETE FROM shopping_list_items WHERE id = ? AND status = ?";
+
+    private static final String FIND_PENDING = "SELECT id, quantity, priority, status, added_at, notes, auto_added, version "
+            + "FROM shopping_list_items WHERE pending_product_id = ?";
+
     private final ShoppingListItemJpaRepository jpaRepository;
     private final ProductJpaRepository productJpaRepository;
     private final ShoppingListItemMapper mapper;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeLogRecorder changeLog;
 
     public ShoppingListItemRepositoryImpl(ShoppingListItemJpaRepository jpaRepository,
                                           ProductJpaRepository productJpaRepository,
-                                          ShoppingListItemMapper mapper) {
+                                          ShoppingListItemMapper mapper,
+                                          EntityManager entityManager,
+                                          JdbcTemplate jdbcTemplate,
+                                          ChangeLogRecorder changeLog) {
         this.jpaRepository = jpaRepository;
         this.productJpaRepository = productJpaRepository;
         this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLog = changeLog;
     }
 
     @Override
     public ShoppingListItem save(ShoppingListItem item) {
-        ShoppingListItemJpaEntity jpaEntity;
-        
         if (item.getId() != null) {
-            jpaEntity = jpaRepository.findById(item.getId())
-                    .orElse(mapper.toJpaEntity(item));
-            mapper.updateJpaEntity(jpaEntity, item);
-        } else {
-            jpaEntity = mapper.toJpaEntity(item);
-            // Ensure the product is managed
-            if (item.getProduct() != null && item.getProduct().getId() != null) {
-                ProductJpaEntity productJpa = productJpaRepository.findById(item.getProduct().getId())
-                        .orElseThrow(() -> new EntityNotFoundException("Product", item.getProduct().getId()));
-                jpaEntity.setProduct(productJpa);
+            // No lookup: inside the use case transaction the reference is the already loaded entity,
+            // and dynamic update writes only the columns that changed
+            ShoppingListItemJpaEntity jpaEntity = jpaRepository.getReferenceById(item.getId());
+            if (item.getVersion() != null && !item.getVersion().equals(jpaEntity.getVersion())) {
+                // Read before a change that is already stored; writing it would undo that change
+                throw new ObjectOptimisticLockingFailureException(ShoppingListItemJpaEntity.class, item.getId());
             }
+            mapper.updateJpaEntity(jpaEntity, item);
+            // Flushed now so the item carries the version of the state it stored, not the one it was read at
+            jpaRepository.flush();
+            item.setVersion(jpaEntity.getVersion());
+            changeLog.upserted(EntityType.SHOPPING_LIST_ITEM, item.getId());
+            return item;
         }
         
+        ShoppingListItemJpaEntity jpaEntity = mapper.toJpaEntity(item);
+        // Attach the product by reference, no lookup needed
+        jpaEntity.setProduct(productJpaRepository.getReferenceById(item.getProduct().getId()));
         ShoppingListItemJpaEntity saved = jpaRepository.save(jpaEntity);
-        return mapper.toDomain(saved);
+        item.setId(saved.getId());
+        item.setVersion(saved.getVersion());
+        changeLog.upserted(EntityType.SHOPPING_LIST_ITEM, item.getId());
+        return item;
+    }
+
+    @Override
+    public List<ShoppingListItem> saveAll(List<ShoppingListItem> items) {
+        List<ShoppingListItemJpaEntity> jpaEntities = new ArrayList<>(items.size());
+        for (ShoppingListItem item : items) {
+            ShoppingListItemJpaEntity jpaEntity = mapper.toJpaEntity(item);
+            // Attach the product by reference, no lookup needed
+            jpaEntity.setProduct(productJpaRepository.getReferenceById(item.getProduct().getId()));
+            jpaEntities.add(jpaEntity);
+        }
+        
+        List<ShoppingListItemJpaEntity> saved = jpaRepository.saveAll(jpaEntities);
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(saved.get(i).getId());
+            items.get(i).setVersion(saved.get(i).getVersion());
+        }
+        changeLog.upserted(EntityType.SHOPPING_LIST_ITEM, items.stream().map(ShoppingListItem::getId).toList());
+        return items;
     }
 
     @Override
@@ -57,6 +174,13 @@ public class ShoppingListItemRepositoryImpl implements ShoppingListItemRepositor
         return jpaRepository.findById(id).map(mapper::toDomain);
     }
 
+    @Override
+    public List<ShoppingListItem> findAllById(Collection<Long> ids) {
+        return jpaRepository.findAllById(ids).stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<ShoppingListItem> findAll() {
         return jpaRepository.findAll().stream()
@@ -64,6 +188,49 @@ public class ShoppingListItemRepositoryImpl implements ShoppingListItemRepositor
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ShoppingListItemView> findAllViews() {
+        return jpaRepository.findAllViews();
+    }
+
+    @Override
+    public Stream<ShoppingListItemView> streamAllViews() {
+        return jpaRepository.streamAllViews();
+    }
+
+    @Override
+    public List<ShoppingListItemView> findViewsByStatus(ShoppingListItem.Status status) {
+        return jpaRepository.findViewsByStatus(ShoppingListItemJpaEntity.Status.valueOf(status.name()));
+    }
+
+    @Override
+    public CursorPage<ShoppingListItem> findPage(ShoppingListItemQuery query) {
+        ShoppingListItemJpaEntity.Status status = query.status() != null
+                ? ShoppingListItemJpaEntity.Status.valueOf(query.status().name()) : null;
+        ShoppingListItemJpaEntity.Priority priority = query.priority() != null
+                ? ShoppingListItemJpaEntity.Priority.valueOf(query.priority().name()) : null;
+        CursorPage<ShoppingListItemJpaEntity> page = new KeysetPageQuery<>(entityManager, ShoppingListItemJpaEntity.class, "s",
+                        "ShoppingListItemJpaEntity s JOIN FETCH s.product pr", ShoppingListItemJpaEntity::getId)
+                .where("s.status = :status", "status", status)
+                .where("s.priority = :priority", "priority", priority)
+                .fetch(sortKey(query.sort()), query.descending(), query.cursor(), query.limit());
+        
+        return new CursorPage<>(
+                page.items().stream().map(mapper::toDomain).collect(Collectors.toList()),
+                page.nextCursor()
+        );
+    }
+
+    private static KeysetPageQuery.SortKey<ShoppingListItemJpaEntity> sortKey(ShoppingListItemQuery.Sort sort) {
+        return switch (sort) {
+            case ID -> new KeysetPageQuery.SortKey<>("s.id", false, ShoppingListItemJpaEntity::getId, Long::valueOf);
+            case ADDED_AT -> new KeysetPageQuery.SortKey<>("s.addedAt", false,
+                    ShoppingListItemJpaEntity::getAddedAt, LocalDateTime::parse);
+            case PRODUCT_NAME -> new KeysetPageQuery.SortKey<>("pr.name", false,
+                    item -> item.getProduct().getName(), value -> value);
+        };
+    }
+
     @Override
     public List<ShoppingListItem> findByStatus(ShoppingListItem.Status status) {
         ShoppingListItemJpaEntity.Status jpaStatus = ShoppingListItemJpaEntity.Status.valueOf(status.name());
@@ -94,11 +261,98 @@ public class ShoppingListItemRepositoryImpl implements ShoppingListItemRepositor
     @Override
     public void deleteById(Long id) {
         jpaRepository.deleteById(id);
+        changeLog.deleted(EntityType.SHOPPING_LIST_ITEM, id);
     }
 
     @Override
     public void delete(ShoppingListItem item) {
         jpaRepository.deleteById(item.getId());
+        changeLog.deleted(EntityType.SHOPPING_LIST_ITEM, item.getId());
+    }
+
+    @Override
+    public Set<Long> updateStatus(Collection<Long> ids, ShoppingListItem.Status from, ShoppingListItem.Status to) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        int[][] updateCounts = batchUpdate(UPDATE_STATUS, distinctIds, (ps, id) -> {
+            ps.setString(1, to.name());
+            ps.setLong(2, id);
+            ps.setString(3, from.name());
+        });
+
+        Set<Long> updated = new HashSet<>(affected(distinctIds, updateCounts));
+        changeLog.upserted(EntityType.SHOPPING_LIST_ITEM, updated);
+        return updated;
+    }
+
+    @Override
+    public void updateStatusIfUnchanged(Collection<ShoppingListItem> items, ShoppingListItem.Status status) {
+        List<ShoppingListItem> toUpdate = List.copyOf(items);
+        int[][] updateCounts = batchUpdate(UPDATE_STATUS_IF_UNCHANGED, toUpdate, (ps, item) -> {
+            ps.setString(1, status.name());
+            ps.setLong(2, item.getId());
+            ps.setLong(3, item.getVersion());
+        });
+
+        int index = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    // Changed or removed since it was read; the transaction must not commit on a stale read
+                    throw new ObjectOptimisticLockingFailureException(
+                            ShoppingListItemJpaEntity.class, toUpdate.get(index).getId());
+                }
+                index++;
+            }
+        }
+        changeLog.upserted(EntityType.SHOPPING_LIST_ITEM, toUpdate.stream().map(ShoppingListItem::getId).toList());
+    }
+
+    private <T> int[][] batchUpdate(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        if (rows.isEmpty()) return new int[0][];
+        entityManager.flush();
+        int[][] updateCounts = jdbcTemplate.batchUpdate(sql, rows, BULK_CHUNK_SIZE, setter);
+        // Loaded copies of the updated rows are stale now
+        entityManager.clear();
+        return updateCounts;
+    }
+
+    /**
+     * @return the rows whose statement in the batch changed a row
+     */
+    private static <T> List<T> affected(List<T> rows, int[][] updateCounts) {
+        List<T> affected = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                if (count > 0) affected.add(rows.get(index));
+                index++;
+            }
+        }
+        return affected;
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return new HashSet<>();
+        return new HashSet<>(jpaRepository.findIdsByIdIn(ids));
+    }
+
+    @Override
+    public int deleteByStatus(ShoppingListItem.Status status) {
+        ShoppingListItemJpaEntity.Status jpaStatus = ShoppingListItemJpaEntity.Status.valueOf(status.name());
+        int deleted = 0;
+        List<Long> ids;
+        do {
+            ids = jpaRepository.findIdsByStatus(jpaStatus, Limit.of(BULK_CHUNK_SIZE));
+            List<Long> removed = affected(ids, batchUpdate(DELETE_WITH_STATUS, ids, (ps, id) -> {
+                ps.setLong(1, id);
+                ps.setString(2, status.name());
+            }));
+            changeLog.deleted(EntityType.SHOPPING_LIST_ITEM, removed);
+            deleted += removed.size();
+            // A short selection is the last one; a row deleted concurrently must not end the loop early
+        } while (ids.size() == BULK_CHUNK_SIZE);
+        return deleted;
     }
 
     @Override
@@ -107,7 +361,134 @@ public class ShoppingListItemRepositoryImpl implements ShoppingListItemRepositor
     }
 
     @Override
-    public boolean existsPendingByProductId(Long productId) {
-        return jpaRepository.existsPendingByProductId(productId);
+    public ShoppingListItem mergePending(ShoppingListItem item, ShoppingListItem.Priority raiseTo) {
+        // Pending inserts, such as a product created in the same transaction, must reach the table first
+        entityManager.flush();
+        lockProducts(List.of(item.getProduct().getId()));
+        Object[] row = pendingRow(item, raiseTo);
+        try {
+            jdbcTemplate.update(MERGE_PENDING, row);
+        } catch (DuplicateKeyException e) {
+            // A pending item inserted without the product lock got in first; merging again updates it
+            jdbcTemplate.update(MERGE_PENDING, row);
+        }
+        // The merge holds the row's lock, so reading it back sees what it left
+        ShoppingListItem pending = jdbcTemplate.queryForObject(FIND_PENDING,
+                (rs, rowNum) -> pendingItem(rs, item), item.getProduct().getId());
+        detachLoaded(pending.getId());
+        if (pending.getVersion() == 0) {
+            // Only an inserted row is still at its first version
+            item.setId(pending.getId());
+        }
+        changeLog.upserted(EntityType.SHOPPING_LIST_ITEM, pending.getId());
+        return pending;
+    }
+
+    private static ShoppingListItem pendingItem(ResultSet rs, ShoppingListItem item) throws SQLException {
+        ShoppingListItem pending = new ShoppingListItem(
+                rs.getLong("id"),
+                item.getProduct(),
+                rs.getObject("quantity", Double.class),
+                ShoppingListItem.Priority.valueOf(rs.getString("priority")),
+                ShoppingListItem.Status.valueOf(rs.getString("status")),
+                rs.getObject("added_at", LocalDateTime.class),
+                rs.getString("notes"),
+                rs.getBoolean("auto_added"));
+        pending.setVersion(rs.getLong("version"));
+        return pending;
+    }
+
+    /**
+     * Statements outside Hibernate leave a loaded copy of the row stale. The reference is that copy
+     * when there is one, and an unloaded proxy otherwise; detaching either reads nothing.
+     */
+    private void detachLoaded(Long id) {
+        entityManager.detach(entityManager.getReference(ShoppingListItemJpaEntity.class, id));
+    }
+
+    @Override
+    public List<ShoppingListItem> insertPendingIfAbsent(List<ShoppingListItem> items) {
+        if (items.isEmpty()) return new ArrayList<>();
+        entityManager.flush();
+        lockProducts(items.stream().map(item -> item.getProduct().getId()).distinct().toList());
+        int[] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(INSERT_PENDING_IF_ABSENT, items, items.size(),
+                    (ps, item) -> setPendingRow(ps, pendingRow(item, null)))[0];
+        } catch (DuplicateKeyException e) {
+            counts = insertFailedAgain(items, e);
+        }
+
+        Set<Long> insertedProductIds = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) insertedProductIds.add(items.get(i).getProduct().getId());
+        }
+        Map<Long, Long> idsByProduct = insertedProductIds.isEmpty() ? Map.of()
+                : jpaRepository.findPendingIdsByProductIdIn(insertedProductIds).stream()
+                        .collect(Collectors.toMap(ShoppingListItemJpaRepository.PendingIdRow::getProductId,
+                                ShoppingListItemJpaRepository.PendingIdRow::getId));
+
+        List<ShoppingListItem> inserted = new ArrayList<>(insertedProductIds.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                ShoppingListItem item = items.get(i);
+                item.setId(idsByProduct.get(item.getProduct().getId()));
+                item.setVersion(0L);
+                inserted.add(item);
+            }
+        }
+        changeLog.upserted(EntityType.SHOPPING_LIST_ITEM, idsByProduct.values());
+        return inserted;
+    }
+
+    /**
+     * A pending item inserted without the product lock got in first for some product. What the batch
+     * did is kept; the statements that failed, and any the driver did not run after the failure, are
+     * run again one by one and now find that product's pending item.
+     * @return update count of each item, as if the batch had succeeded
+     */
+    private int[] insertFailedAgain(List<ShoppingListItem> items, DuplicateKeyException failure) {
+        int[] done = failure.getCause() instanceof BatchUpdateException batch ? batch.getUpdateCounts() : new int[0];
+        int[] counts = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            if (i < done.length && done[i] != Statement.EXECUTE_FAILED) {
+                counts[i] = done[i];
+                continue;
+            }
+            Object[] row = pendingRow(items.get(i), null);
+            try {
+                counts[i] = jdbcTemplate.update(INSERT_PENDING_IF_ABSENT, row);
+            } catch (DuplicateKeyException e) {
+                counts[i] = jdbcTemplate.update(INSERT_PENDING_IF_ABSENT, row);
+            }
+        }
+        return counts;
+    }
+
+    private void lockProducts(List<Long> productIds) {
+        jdbcTemplate.query(LOCK_PRODUCTS.formatted(String.join(", ", Collections.nCopies(productIds.size(), "?"))),
+                rs -> { }, productIds.toArray());
+    }
+
+    private static Object[] pendingRow(ShoppingListItem item, ShoppingListItem.Priority raiseTo) {
+        return new Object[] {item.getProduct().getId(), item.getQuantity(), item.getPriority().name(),
+                raiseTo != null ? raiseTo.name() : null, item.getAddedAt(), item.getNotes(), item.isAutoAdded()};
+    }
+
+    private static void setPendingRow(PreparedStatement ps, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            ps.setObject(i + 1, row[i]);
+        }
+    }
+
+    /**
+     * SQL expression ranking a priority column by the enum's order, so priorities compare as in the domain.
+     */
+    private static String priorityRank(String column) {
+        StringBuilder rank = new StringBuilder("CASE ").append(column);
+        for (ShoppingListItemJpaEntity.Priority priority : ShoppingListItemJpaEntity.Priority.values()) {
+            rank.append(" WHEN '").append(priority.name()).append("' THEN ").append(priority.ordinal());
+        }
+        return rank.append(" END").toString();
     }
 }
@@ -1,15 +1,23 @@
 package com.viniciusvr.edespensa.presentation.controller;
 
 import com.viniciusvr.edespensa.application.dto.DashboardAlertsDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
 import com.viniciusvr.edespensa.application.usecase.dashboard.DashboardUseCase;
 import com.viniciusvr.edespensa.presentation.dto.request.AddAlertsToShoppingListRequest;
 import com.viniciusvr.edespensa.presentation.dto.response.AddToShoppingListResponse;
 import com.viniciusvr.edespensa.presentation.dto.response.DashboardAlertsResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.function.Function;
 
 /**
  * REST controller for dashboard operations.
@@ -20,15 +28,25 @@ import org.springframework.web.bind.annotation.*;
 public class DashboardController {
 
     private final DashboardUseCase dashboardUseCase;
+    private final JsonArrayChunkReader chunkReader;
+    private final AggregateVersions versions;
 
-    public DashboardController(DashboardUseCase dashboardUseCase) {
+    public DashboardController(DashboardUseCase dashboardUseCase, JsonArrayChunkReader chunkReader,
+                               AggregateVersions versions) {
         this.dashboardUseCase = dashboardUseCase;
+        this.chunkReader = chunkReader;
+        this.versions = versions;
     }
 
     @GetMapping("/alerts")
     @Operation(summary = "Get dashboard alerts", 
-               description = "Returns alerts for products that are expiring soon, expired, or low on stock")
-    public ResponseEntity<DashboardAlertsResponse> getAlerts() {
+               description = "Returns alerts for products that are expiring soon, expired, or low on stock. "
+                           + "Answers If-None-Match with 304 when nothing changed.")
+    public ResponseEntity<DashboardAlertsResponse> getAlerts(WebRequest request) {
+        // Expiration alerts depend on the day, so the date is part of the tag
+        if (request.checkNotModified(versions.tag(Aggregate.PANTRY, Aggregate.CATALOG) + "-" + LocalDate.now())) {
+            return null;
+        }
         DashboardAlertsDto alerts = dashboardUseCase.getAlerts();
         return ResponseEntity.ok(DashboardAlertsResponse.fromDto(alerts));
     }
@@ -43,10 +61,15 @@ public class DashboardController {
 
     @PostMapping("/alerts/add-selected-to-shopping-list")
     @Operation(summary = "Add selected alerts to shopping list", 
-               description = "Adds selected pantry items from alerts to the shopping list")
-    public ResponseEntity<AddToShoppingListResponse> addSelectedAlertsToShoppingList(
-            @Valid @RequestBody AddAlertsToShoppingListRequest request) {
-        int itemsAdded = dashboardUseCase.addSelectedAlertsToShoppingList(request.pantryItemIds());
+               description = "Adds selected pantry items from alerts to the shopping list. "
+                           + "The ids are read and processed in chunks while the body arrives.",
+               requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                   content = @Content(schema = @Schema(implementation = AddAlertsToShoppingListRequest.class))))
+    public ResponseEntity<AddToShoppingListResponse> addSelectedAlertsToShoppingList(InputStream body) {
+        int itemsAdded = dashboardUseCase.addSelectedAlertsToShoppingList(chunkReader.nonEmptyChunks(
+            body, "pantryItemIds", Long.class, Function.identity(),
+            "At least one pantry item ID is required"
+        ));
         return ResponseEntity.ok(AddToShoppingListResponse.success(itemsAdded));
     }
 }
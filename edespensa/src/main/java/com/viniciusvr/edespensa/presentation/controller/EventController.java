@@ -0,0 +1,35 @@
+package com.viniciusvr.edespensa.presentation.controller;
+
+import com.viniciusvr.edespensa.presentation.sse.ChangeEventBroadcaster;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for the live stream of pantry, shopping list and alert changes.
+ */
+@RestController
+@RequestMapping("/api/events")
+@Tag(name = "Events", description = "Live change events")
+public class EventController {
+
+    private final ChangeEventBroadcaster broadcaster;
+
+    public EventController(ChangeEventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream change events", 
+               description = "Server-Sent Events named ITEM_CONSUMED, ITEM_DEPLETED, ITEM_DISCARDED, "
+                       + "SHOPPING_ITEM_ADDED, SHOPPING_ITEM_PURCHASED, ALERT_ENTERED and ALERT_LEFT, sent once "
+                       + "the change is committed. A client that falls behind is disconnected; "
+                       + "after reconnecting it should reload the data it shows.")
+    public SseEmitter streamEvents() {
+        return broadcaster.subscribe();
+    }
+}
@@ -0,0 +1,116 @@
+package com.viniciusvr.edespensa.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes export downloads as CSV or NDJSON while the rows are read, so an export of any size
+ * is never held in memory. NDJSON lines have the same shape as the listing endpoints; CSV uses
+ * the flat columns given by each controller.
+ */
+@Component
+class ExportWriter {
+
+    /**
+     * A CSV column: header name and how to read its value from a row.
+     */
+    record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON(MediaType.APPLICATION_NDJSON);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    ExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Builds the download response. The source is only run once the response body is written,
+     * handing each row to the sink it is given.
+     */
+    <T> ResponseEntity<StreamingResponseBody> export(String fileName, String format, List<Column<T>> columns,
+                                                     Consumer<Consumer<T>> source) {
+        Format exportFormat = format(format);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (exportFormat == Format.CSV) {
+                writeCsvRow(writer, columns.stream().map(Column::name).map(Object.class::cast).toList());
+                // Send the header right away instead of waiting for the first buffer to fill
+                writer.flush();
+            }
+            source.accept(row -> {
+                try {
+                    if (exportFormat == Format.CSV) {
+                        writeCsvRow(writer, columns.stream().map(column -> column.value().apply(row)).toList());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName + "." + exportFormat.name().toLowerCase())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    private static Format format(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) writer.write(',');
+            Object value = values.get(i);
+            if (value != null) writer.write(csvField(value.toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quotes a field when it holds a separator, quote or line break (RFC 4180).
+     */
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
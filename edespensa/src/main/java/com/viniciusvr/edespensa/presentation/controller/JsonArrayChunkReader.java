@@ -0,0 +1,160 @@
+package com.viniciusvr.edespensa.presentation.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reads the JSON array of a batch request body incrementally, handing it out in fixed-size chunks,
+ * so a large batch is never held in memory as a whole. Elements are validated as they are read.
+ * Malformed or invalid input surfaces as IllegalArgumentException from the iterator.
+ */
+@Component
+class JsonArrayChunkReader {
+
+    /**
+     * Elements per chunk, matching the chunk size of the bulk repository operations.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    JsonArrayChunkReader(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Chunks of a body that is itself a JSON array. An empty array yields no chunks.
+     */
+    <T> Iterator<List<T>> chunks(InputStream body, Class<T> elementType) {
+        return new ChunkIterator<>(body, null, elementType, Function.identity(), null);
+    }
+
+    /**
+     * Chunks of the array held by the given field of a JSON object body, each element converted
+     * with the mapper once validated. An empty array is rejected with the given message.
+     */
+    <T, R> Iterator<List<R>> nonEmptyChunks(InputStream body, String arrayField, Class<T> elementType,
+                                            Function<T, R> mapper, String emptyMessage) {
+        return new ChunkIterator<>(body, arrayField, elementType, mapper, emptyMessage);
+    }
+
+    private final class ChunkIterator<T, R> implements Iterator<List<R>> {
+
+        private final InputStream body;
+        private final String arrayField;
+        private final Class<T> elementType;
+        private final Function<T, R> mapper;
+        private final String emptyMessage;
+        private JsonParser parser;
+        private List<R> next;
+        private int index;
+        private boolean finished;
+
+        private ChunkIterator(InputStream body, String arrayField, Class<T> elementType,
+                              Function<T, R> mapper, String emptyMessage) {
+            this.body = body;
+            this.arrayField = arrayField;
+            this.elementType = elementType;
+            this.mapper = mapper;
+            this.emptyMessage = emptyMessage;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = readChunk();
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<R> chunk = next;
+            next = null;
+            return chunk;
+        }
+
+        private List<R> readChunk() {
+            try {
+                if (parser == null) {
+                    parser = objectMapper.getFactory().createParser(body);
+                    moveToArray();
+                }
+                List<R> chunk = new ArrayList<>(CHUNK_SIZE);
+                while (chunk.size() < CHUNK_SIZE) {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        finished = true;
+                        parser.close();
+                        break;
+                    }
+                    chunk.add(mapper.apply(validate(objectMapper.readValue(parser, elementType))));
+                }
+                if (index == 0 && finished && emptyMessage != null) {
+                    throw new IllegalArgumentException(emptyMessage);
+                }
+                return chunk.isEmpty() ? null : chunk;
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed request body: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Positions the parser on the opening bracket of the array to read.
+         */
+        private void moveToArray() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (arrayField != null && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    token = parser.nextToken();
+                    if (arrayField.equals(field)) {
+                        break;
+                    }
+                    parser.skipChildren();
+                    token = null;
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException(arrayField != null
+                        ? "Request body must contain an array field '" + arrayField + "'"
+                        : "Request body must be a JSON array");
+            }
+        }
+
+        private T validate(T element) {
+            String position = (arrayField != null ? arrayField : "") + "[" + index++ + "]";
+            if (element == null) {
+                throw new IllegalArgumentException(position + " must not be null");
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(element);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<T> violation = violations.iterator().next();
+                throw new IllegalArgumentException(
+                        position + "." + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+            return element;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.viniciusvr.edespensa.presentation.controller;
+
+/**
+ * Parsing of the paging request parameters shared by the listing endpoints.
+ */
+final class PageParams {
+
+    static final String DEFAULT_LIMIT = "20";
+    static final int MAX_LIMIT = 100;
+
+    private PageParams() {
+    }
+
+    static int limit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    static boolean descending(String direction) {
+        return switch (direction.toUpperCase()) {
+            case "ASC" -> false;
+            case "DESC" -> true;
+            default -> throw new IllegalArgumentException("direction must be ASC or DESC");
+        };
+    }
+
+    static <E extends Enum<E>> E sort(Class<E> sortType, String sort) {
+        try {
+            return Enum.valueOf(sortType, sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+    }
+}
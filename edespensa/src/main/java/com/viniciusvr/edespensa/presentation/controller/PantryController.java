@@ -1,22 +1,33 @@
 package com.viniciusvr.edespensa.presentation.controller;
 
-import com.viniciusvr.edespensa.application.dto.BatchConsumptionDto;
 import com.viniciusvr.edespensa.application.dto.ConsumptionItemDto;
 import com.viniciusvr.edespensa.application.dto.ConsumptionResultDto;
+import com.viniciusvr.edespensa.application.dto.ProductStockDto;
 import com.viniciusvr.edespensa.application.dto.QuickPurchaseDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
 import com.viniciusvr.edespensa.application.usecase.pantry.ConsumePantryItemUseCase;
 import com.viniciusvr.edespensa.application.usecase.pantry.DiscardPantryItemUseCase;
 import com.viniciusvr.edespensa.application.usecase.pantry.PantryManagementUseCase;
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.repository.PantryItemQuery;
 import com.viniciusvr.edespensa.presentation.dto.request.*;
 import com.viniciusvr.edespensa.presentation.dto.response.*;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,16 +39,41 @@ import java.util.stream.Collectors;
 @Tag(name = "Pantry", description = "Pantry item management endpoints")
 public class PantryController {
 
+    private static final List<ExportWriter.Column<PantryItemResponse>> EXPORT_COLUMNS = List.of(
+        new ExportWriter.Column<>("id", PantryItemResponse::id),
+        new ExportWriter.Column<>("productId", item -> item.product().id()),
+        new ExportWriter.Column<>("productName", item -> item.product().name()),
+        new ExportWriter.Column<>("category", item -> item.product().category()),
+        new ExportWriter.Column<>("unit", item -> item.product().unit()),
+        new ExportWriter.Column<>("quantity", PantryItemResponse::quantity),
+        new ExportWriter.Column<>("expirationDate", PantryItemResponse::expirationDate),
+        new ExportWriter.Column<>("addedDate", PantryItemResponse::addedDate),
+        new ExportWriter.Column<>("location", PantryItemResponse::location),
+        new ExportWriter.Column<>("notes", PantryItemResponse::notes),
+        new ExportWriter.Column<>("expired", PantryItemResponse::isExpired),
+        new ExportWriter.Column<>("expiringSoon", PantryItemResponse::isExpiringSoon),
+        new ExportWriter.Column<>("belowLowStockThreshold", PantryItemResponse::isBelowLowStockThreshold)
+    );
+
     private final PantryManagementUseCase pantryUseCase;
     private final ConsumePantryItemUseCase consumeUseCase;
     private final DiscardPantryItemUseCase discardUseCase;
+    private final JsonArrayChunkReader chunkReader;
+    private final ExportWriter exportWriter;
+    private final AggregateVersions versions;
 
     public PantryController(PantryManagementUseCase pantryUseCase,
                            ConsumePantryItemUseCase consumeUseCase,
-                           DiscardPantryItemUseCase discardUseCase) {
+                           DiscardPantryItemUseCase discardUseCase,
+                           JsonArrayChunkReader chunkReader,
+                           ExportWriter exportWriter,
+                           AggregateVersions versions) {
         this.pantryUseCase = pantryUseCase;
         this.consumeUseCase = consumeUseCase;
         this.discardUseCase = discardUseCase;
+        this.chunkReader = chunkReader;
+        this.exportWriter = exportWriter;
+        this.versions = versions;
     }
 
     @PostMapping
@@ -76,15 +112,98 @@ public class PantryController {
         return ResponseEntity.status(HttpStatus.CREATED).body(PantryItemResponse.fromDomain(item));
     }
 
+    @PostMapping("/quick-purchase-batch")
+    @Operation(summary = "Quick purchase batch", 
+               description = "Adds many purchased items to the pantry at once. Creates missing products by name.")
+    public ResponseEntity<List<PantryItemResponse>> quickPurchaseBatch(
+            @Valid @RequestBody QuickPurchaseBatchRequest request) {
+        List<QuickPurchaseDto> dtos = request.items().stream()
+                .map(item -> {
+                    if (!item.hasProductId() && !item.hasProductName()) {
+                        throw new IllegalArgumentException("Either productId or productName must be provided");
+                    }
+                    return new QuickPurchaseDto(
+                        item.productId(),
+                        item.productName(),
+                        item.category(),
+                        item.unit(),
+                        item.quantity(),
+                        item.expirationDate(),
+                        item.location(),
+                        item.notes()
+                    );
+                })
+                .collect(Collectors.toList());
+        
+        List<PantryItemResponse> response = pantryUseCase.quickPurchaseBatch(dtos).stream()
+                .map(PantryItemResponse::fromDomain)
+                .collect(Collectors.toList());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @GetMapping
-    @Operation(summary = "Get all pantry items", description = "Returns all items in the pantry")
-    public ResponseEntity<List<PantryItemResponse>> getAllPantryItems() {
+    @Operation(summary = "Get all pantry items", 
+               description = "Returns all items in the pantry. Answers If-None-Match with 304 when nothing changed.")
+    public ResponseEntity<List<PantryItemResponse>> getAllPantryItems(WebRequest request) {
+        // Expiration flags depend on the day, so the date is part of the tag
+        if (request.checkNotModified(versions.tag(Aggregate.PANTRY, Aggregate.CATALOG) + "-" + LocalDate.now())) {
+            return null;
+        }
         List<PantryItemResponse> items = pantryUseCase.getAllPantryItems().stream()
-                .map(PantryItemResponse::fromDomain)
+                .map(PantryItemResponse::fromView)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "Get stock per product", 
+               description = "Returns each product's total quantity, number of pantry items and earliest expiration. "
+                           + "Answers If-None-Match with 304 when nothing changed.")
+    public ResponseEntity<List<ProductStockDto>> getStockSummary(WebRequest request) {
+        if (request.checkNotModified(versions.tag(Aggregate.PANTRY, Aggregate.CATALOG))) {
+            return null;
+        }
+        return ResponseEntity.ok(pantryUseCase.getStockSummary());
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export pantry items", 
+               description = "Downloads all pantry items as csv or ndjson, streamed while they are read")
+    public ResponseEntity<StreamingResponseBody> exportPantryItems(@RequestParam(defaultValue = "csv") String format) {
+        return exportWriter.export("pantry", format, EXPORT_COLUMNS,
+            sink -> pantryUseCase.exportPantryItems(item -> sink.accept(PantryItemResponse.fromView(item))));
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "List pantry items page by page", 
+               description = "Returns one page of pantry items, filtered and sorted. Sort: ID, EXPIRATION_DATE, QUANTITY or PRODUCT_NAME. "
+                   + "lowStock keeps the items of the products the dashboard reports as low stock; products out of "
+                   + "stock have no items, so they are listed only in the dashboard alerts.")
+    public ResponseEntity<CursorPageResponse<PantryItemResponse>> getPantryItemPage(
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate expiresFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate expiresTo,
+            @RequestParam(defaultValue = "false") boolean lowStock,
+            @RequestParam(defaultValue = "ID") String sort,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = PageParams.DEFAULT_LIMIT) int limit) {
+        PantryItemQuery query = new PantryItemQuery(
+            location,
+            category,
+            expiresFrom,
+            expiresTo,
+            null,
+            PageParams.sort(PantryItemQuery.Sort.class, sort),
+            PageParams.descending(direction),
+            cursor,
+            PageParams.limit(limit)
+        );
+        return ResponseEntity.ok(CursorPageResponse.fromDomain(
+            pantryUseCase.getPantryItemPage(query, lowStock), PantryItemResponse::fromDomain));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get pantry item by ID", description = "Returns a specific pantry item")
     public ResponseEntity<PantryItemResponse> getPantryItemById(@PathVariable Long id) {
@@ -140,16 +259,34 @@ public class PantryController {
         ));
     }
 
+    @PostMapping("/product/{productId}/consume")
+    @Operation(summary = "Consume product",
+               description = "Consumes a quantity of a product across its pantry items, the ones expiring first "
+                           + "first. Returns info about depleted items.")
+    public ResponseEntity<ConsumptionResponse> consumeProduct(
+            @PathVariable Long productId,
+            @Valid @RequestBody ConsumeRequest request) {
+        ConsumptionResultDto result = consumeUseCase.consumeProduct(productId, request.quantity());
+        return ResponseEntity.ok(ConsumptionResponse.from(
+            result.itemsConsumed(),
+            result.depletedItemIds(),
+            result.depletedProductNames(),
+            result.message()
+        ));
+    }
+
     @PostMapping("/consume-batch")
     @Operation(summary = "Batch consume pantry items", 
-               description = "Consumes multiple pantry items at once. Supports batch operations.")
-    public ResponseEntity<ConsumptionResponse> consumeBatch(@Valid @RequestBody BatchConsumeRequest request) {
-        List<ConsumptionItemDto> items = request.items().stream()
-                .map(i -> new ConsumptionItemDto(i.pantryItemId(), i.quantity()))
-                .collect(Collectors.toList());
-        
-        BatchConsumptionDto batchDto = new BatchConsumptionDto(items);
-        ConsumptionResultDto result = consumeUseCase.consumeBatch(batchDto);
+               description = "Consumes multiple pantry items at once. The items are read and applied in chunks "
+                           + "while the body arrives.",
+               requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                   content = @Content(schema = @Schema(implementation = BatchConsumeRequest.class))))
+    public ResponseEntity<ConsumptionResponse> consumeBatch(InputStream body) {
+        ConsumptionResultDto result = consumeUseCase.consumeBatch(chunkReader.nonEmptyChunks(
+            body, "items", BatchConsumeRequest.ConsumeItem.class,
+            i -> new ConsumptionItemDto(i.pantryItemId(), i.quantity()),
+            "At least one item is required"
+        ));
         
         return ResponseEntity.ok(ConsumptionResponse.from(
             result.itemsConsumed(),
@@ -167,9 +304,13 @@ public class PantryController {
     }
 
     @PostMapping("/discard-batch")
-    @Operation(summary = "Batch discard pantry items", description = "Discards multiple pantry items at once")
-    public ResponseEntity<DiscardResponse> discardBatch(@RequestBody List<Long> pantryItemIds) {
-        List<String> discardedNames = discardUseCase.discardItems(pantryItemIds);
+    @Operation(summary = "Batch discard pantry items", 
+               description = "Discards multiple pantry items at once. The ids are read and deleted in chunks "
+                           + "while the body arrives.",
+               requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                   content = @Content(array = @ArraySchema(schema = @Schema(type = "integer", format = "int64")))))
+    public ResponseEntity<DiscardResponse> discardBatch(InputStream body) {
+        List<String> discardedNames = discardUseCase.discardItems(chunkReader.chunks(body, Long.class));
         return ResponseEntity.ok(DiscardResponse.multiple(discardedNames));
     }
 
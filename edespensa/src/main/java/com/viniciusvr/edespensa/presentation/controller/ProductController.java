@@ -2,7 +2,9 @@ package com.viniciusvr.edespensa.presentation.controller;
 
 import com.viniciusvr.edespensa.application.usecase.product.ProductManagementUseCase;
 import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.ProductQuery;
 import com.viniciusvr.edespensa.presentation.dto.request.ProductRequest;
+import com.viniciusvr.edespensa.presentation.dto.response.CursorPageResponse;
 import com.viniciusvr.edespensa.presentation.dto.response.ProductResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +12,7 @@ import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,10 +25,23 @@ import java.util.stream.Collectors;
 @Tag(name = "Products", description = "Product management endpoints")
 public class ProductController {
 
+    private static final List<ExportWriter.Column<ProductResponse>> EXPORT_COLUMNS = List.of(
+        new ExportWriter.Column<>("id", ProductResponse::id),
+        new ExportWriter.Column<>("name", ProductResponse::name),
+        new ExportWriter.Column<>("category", ProductResponse::category),
+        new ExportWriter.Column<>("unit", ProductResponse::unit),
+        new ExportWriter.Column<>("description", ProductResponse::description),
+        new ExportWriter.Column<>("trackExpiration", ProductResponse::trackExpiration),
+        new ExportWriter.Column<>("minimumQuantity", ProductResponse::minimumQuantity),
+        new ExportWriter.Column<>("targetQuantity", ProductResponse::targetQuantity)
+    );
+
     private final ProductManagementUseCase productUseCase;
+    private final ExportWriter exportWriter;
 
-    public ProductController(ProductManagementUseCase productUseCase) {
+    public ProductController(ProductManagementUseCase productUseCase, ExportWriter exportWriter) {
         this.productUseCase = productUseCase;
+        this.exportWriter = exportWriter;
     }
 
     @PostMapping
@@ -36,7 +52,9 @@ public class ProductController {
             request.category(),
             request.unit(),
             request.description(),
-            request.trackExpiration()
+            request.trackExpiration(),
+            request.minimumQuantity(),
+            request.targetQuantity()
         );
         return ResponseEntity.status(HttpStatus.CREATED).body(ProductResponse.fromDomain(product));
     }
@@ -50,6 +68,36 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export products", 
+               description = "Downloads all products as csv or ndjson, streamed while they are read")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format) {
+        return exportWriter.export("products", format, EXPORT_COLUMNS,
+            sink -> productUseCase.exportProducts(product -> sink.accept(ProductResponse.fromDomain(product))));
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "List products page by page", 
+               description = "Returns one page of products, filtered and sorted. Sort: ID, NAME or CATEGORY.")
+    public ResponseEntity<CursorPageResponse<ProductResponse>> getProductPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "ID") String sort,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = PageParams.DEFAULT_LIMIT) int limit) {
+        ProductQuery query = new ProductQuery(
+            category,
+            q,
+            PageParams.sort(ProductQuery.Sort.class, sort),
+            PageParams.descending(direction),
+            cursor,
+            PageParams.limit(limit)
+        );
+        return ResponseEntity.ok(CursorPageResponse.fromDomain(
+            productUseCase.getProductPage(query), ProductResponse::fromDomain));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID", description = "Returns a specific product by its ID")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
@@ -86,7 +134,9 @@ public class ProductController {
             request.category(),
             request.unit(),
             request.description(),
-            request.trackExpiration()
+            request.trackExpiration(),
+            request.minimumQuantity(),
+            request.targetQuantity()
         );
         return ResponseEntity.ok(ProductResponse.fromDomain(product));
     }
@@ -1,17 +1,33 @@
 package com.viniciusvr.edespensa.presentation.controller;
 
+import com.viniciusvr.edespensa.application.dto.CheckoutItemDto;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions;
+import com.viniciusvr.edespensa.application.usecase.AggregateVersions.Aggregate;
+import com.viniciusvr.edespensa.application.usecase.shoppinglist.CheckoutUseCase;
 import com.viniciusvr.edespensa.application.usecase.shoppinglist.ShoppingListManagementUseCase;
 import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemQuery;
+import com.viniciusvr.edespensa.presentation.dto.request.CheckoutRequest;
 import com.viniciusvr.edespensa.presentation.dto.request.ShoppingListItemRequest;
 import com.viniciusvr.edespensa.presentation.dto.request.ShoppingListItemUpdateRequest;
+import com.viniciusvr.edespensa.presentation.dto.response.CheckoutResponse;
+import com.viniciusvr.edespensa.presentation.dto.response.CursorPageResponse;
+import com.viniciusvr.edespensa.presentation.dto.response.PantryItemResponse;
 import com.viniciusvr.edespensa.presentation.dto.response.ShoppingListItemResponse;
+import com.viniciusvr.edespensa.presentation.dto.response.StatusUpdateResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,10 +39,36 @@ import java.util.stream.Collectors;
 @Tag(name = "Shopping List", description = "Shopping list management endpoints")
 public class ShoppingListController {
 
+    private static final List<ExportWriter.Column<ShoppingListItemResponse>> EXPORT_COLUMNS = List.of(
+        new ExportWriter.Column<>("id", ShoppingListItemResponse::id),
+        new ExportWriter.Column<>("productId", item -> item.product().id()),
+        new ExportWriter.Column<>("productName", item -> item.product().name()),
+        new ExportWriter.Column<>("category", item -> item.product().category()),
+        new ExportWriter.Column<>("unit", item -> item.product().unit()),
+        new ExportWriter.Column<>("quantity", ShoppingListItemResponse::quantity),
+        new ExportWriter.Column<>("priority", ShoppingListItemResponse::priority),
+        new ExportWriter.Column<>("status", ShoppingListItemResponse::status),
+        new ExportWriter.Column<>("addedAt", ShoppingListItemResponse::addedAt),
+        new ExportWriter.Column<>("notes", ShoppingListItemResponse::notes),
+        new ExportWriter.Column<>("autoAdded", ShoppingListItemResponse::autoAdded)
+    );
+
     private final ShoppingListManagementUseCase shoppingListUseCase;
+    private final CheckoutUseCase checkoutUseCase;
+    private final JsonArrayChunkReader chunkReader;
+    private final ExportWriter exportWriter;
+    private final AggregateVersions versions;
 
-    public ShoppingListController(ShoppingListManagementUseCase shoppingListUseCase) {
+    public ShoppingListController(ShoppingListManagementUseCase shoppingListUseCase,
+                                  CheckoutUseCase checkoutUseCase,
+                                  JsonArrayChunkReader chunkReader,
+                                  ExportWriter exportWriter,
+                                  AggregateVersions versions) {
         this.shoppingListUseCase = shoppingListUseCase;
+        this.checkoutUseCase = checkoutUseCase;
+        this.chunkReader = chunkReader;
+        this.exportWriter = exportWriter;
+        this.versions = versions;
     }
 
     @PostMapping
@@ -57,20 +99,54 @@ public class ShoppingListController {
     @Operation(summary = "Get all shopping list items", description = "Returns all items in the shopping list")
     public ResponseEntity<List<ShoppingListItemResponse>> getAllItems() {
         List<ShoppingListItemResponse> items = shoppingListUseCase.getAllItems().stream()
-                .map(ShoppingListItemResponse::fromDomain)
+                .map(ShoppingListItemResponse::fromView)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(items);
     }
 
     @GetMapping("/pending")
-    @Operation(summary = "Get pending shopping list items", description = "Returns only pending (not purchased) items")
-    public ResponseEntity<List<ShoppingListItemResponse>> getPendingItems() {
+    @Operation(summary = "Get pending shopping list items", 
+               description = "Returns only pending (not purchased) items. Answers If-None-Match with 304 when nothing changed.")
+    public ResponseEntity<List<ShoppingListItemResponse>> getPendingItems(WebRequest request) {
+        if (request.checkNotModified(versions.tag(Aggregate.SHOPPING_LIST, Aggregate.CATALOG))) {
+            return null;
+        }
         List<ShoppingListItemResponse> items = shoppingListUseCase.getPendingItems().stream()
-                .map(ShoppingListItemResponse::fromDomain)
+                .map(ShoppingListItemResponse::fromView)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export shopping list", 
+               description = "Downloads all shopping list items as csv or ndjson, streamed while they are read")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "csv") String format) {
+        return exportWriter.export("shopping-list", format, EXPORT_COLUMNS,
+            sink -> shoppingListUseCase.exportItems(item -> sink.accept(ShoppingListItemResponse.fromView(item))));
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "List shopping list items page by page", 
+               description = "Returns one page of shopping list items, filtered and sorted. Sort: ID, ADDED_AT or PRODUCT_NAME.")
+    public ResponseEntity<CursorPageResponse<ShoppingListItemResponse>> getItemPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            @RequestParam(defaultValue = "ID") String sort,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = PageParams.DEFAULT_LIMIT) int limit) {
+        ShoppingListItemQuery query = new ShoppingListItemQuery(
+            status != null ? ShoppingListItem.Status.valueOf(status.toUpperCase()) : null,
+            priority != null ? ShoppingListItem.Priority.valueOf(priority.toUpperCase()) : null,
+            PageParams.sort(ShoppingListItemQuery.Sort.class, sort),
+            PageParams.descending(direction),
+            cursor,
+            PageParams.limit(limit)
+        );
+        return ResponseEntity.ok(CursorPageResponse.fromDomain(
+            shoppingListUseCase.getItemPage(query), ShoppingListItemResponse::fromDomain));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get shopping list item by ID", description = "Returns a specific shopping list item")
     public ResponseEntity<ShoppingListItemResponse> getItemById(@PathVariable Long id) {
@@ -99,10 +175,42 @@ public class ShoppingListController {
     }
 
     @PostMapping("/purchased-batch")
-    @Operation(summary = "Mark multiple items as purchased", description = "Marks multiple shopping list items as purchased")
-    public ResponseEntity<Void> markAsPurchasedBatch(@RequestBody List<Long> ids) {
-        shoppingListUseCase.markAsPurchasedBatch(ids);
-        return ResponseEntity.ok().build();
+    @Operation(summary = "Mark multiple items as purchased", 
+               description = "Marks multiple pending shopping list items as purchased. Unknown ids and items that are "
+                           + "no longer pending are reported in the response. "
+                           + "The ids are read and updated in chunks while the body arrives.",
+               requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                   content = @Content(array = @ArraySchema(schema = @Schema(type = "integer", format = "int64")))))
+    public ResponseEntity<StatusUpdateResponse> markAsPurchasedBatch(InputStream body) {
+        return ResponseEntity.ok(StatusUpdateResponse.from(
+            shoppingListUseCase.markAsPurchasedBatch(chunkReader.chunks(body, Long.class))));
+    }
+
+    @PostMapping("/checkout")
+    @Operation(summary = "Checkout purchased items", 
+               description = "Marks pending items as purchased and adds them to the pantry in one operation. "
+                           + "Quantity defaults to the shopping list quantity.")
+    public ResponseEntity<CheckoutResponse> checkout(@Valid @RequestBody CheckoutRequest request) {
+        List<CheckoutItemDto> items = request.items().stream()
+                .map(i -> new CheckoutItemDto(i.shoppingListItemId(), i.quantity(), i.expirationDate(), i.location()))
+                .collect(Collectors.toList());
+        
+        List<PantryItemResponse> pantryItems = checkoutUseCase.checkout(items).stream()
+                .map(PantryItemResponse::fromDomain)
+                .collect(Collectors.toList());
+        return ResponseEntity.status(HttpStatus.CREATED).body(CheckoutResponse.from(pantryItems));
+    }
+
+    @PostMapping("/cancel-batch")
+    @Operation(summary = "Cancel multiple items", 
+               description = "Cancels multiple pending shopping list items. Unknown ids and items that are "
+                           + "no longer pending are reported in the response. "
+                           + "The ids are read and updated in chunks while the body arrives.",
+               requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                   content = @Content(array = @ArraySchema(schema = @Schema(type = "integer", format = "int64")))))
+    public ResponseEntity<StatusUpdateResponse> cancelBatch(InputStream body) {
+        return ResponseEntity.ok(StatusUpdateResponse.from(
+            shoppingListUseCase.cancelBatch(chunkReader.chunks(body, Long.class))));
     }
 
     @PostMapping("/{id}/cancel")
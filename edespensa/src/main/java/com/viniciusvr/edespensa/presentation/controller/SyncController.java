@@ -0,0 +1,50 @@
+package com.viniciusvr.edespensa.presentation.controller;
+
+import com.viniciusvr.edespensa.application.usecase.sync.SyncUseCase;
+import com.viniciusvr.edespensa.presentation.dto.response.SyncResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for delta sync of the catalog, pantry and shopping list.
+ */
+@RestController
+@RequestMapping("/api/sync")
+@Tag(name = "Sync", description = "Delta sync endpoints")
+public class SyncController {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    private final SyncUseCase syncUseCase;
+
+    public SyncController(SyncUseCase syncUseCase) {
+        this.syncUseCase = syncUseCase;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get changes since a cursor", 
+               description = "Returns products, pantry items and shopping list items created, updated or deleted "
+                       + "after the cursor, plus the new cursor. Start with since=0. The cursor sent counts as "
+                       + "applied by the client, so deletes every client has seen can be forgotten.")
+    public ResponseEntity<SyncResponse> sync(
+            @RequestParam String clientId,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        if (clientId.isBlank() || clientId.length() > MAX_CLIENT_ID_LENGTH) {
+            throw new IllegalArgumentException("clientId must have between 1 and " + MAX_CLIENT_ID_LENGTH + " characters");
+        }
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ResponseEntity.ok(SyncResponse.fromDomain(syncUseCase.getChanges(clientId, since, limit)));
+    }
+}
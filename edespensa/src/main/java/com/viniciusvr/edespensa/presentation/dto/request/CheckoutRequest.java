@@ -0,0 +1,30 @@
+package com.viniciusvr.edespensa.presentation.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request DTO for checking out shopping list items into the pantry.
+ */
+public record CheckoutRequest(
+    @NotEmpty(message = "At least one item is required")
+    @Valid
+    List<CheckoutItem> items
+) {
+    public record CheckoutItem(
+        @NotNull(message = "Shopping list item ID is required")
+        Long shoppingListItemId,
+        
+        @Positive(message = "Quantity must be positive")
+        Double quantity,
+        
+        LocalDate expirationDate,
+        
+        String location
+    ) {}
+}
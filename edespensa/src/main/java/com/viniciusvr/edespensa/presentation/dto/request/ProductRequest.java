@@ -1,6 +1,8 @@
 package com.viniciusvr.edespensa.presentation.dto.request;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
 /**
@@ -19,5 +21,11 @@ public record ProductRequest(
     
     String description,
     
-    boolean trackExpiration
+    boolean trackExpiration,
+    
+    @PositiveOrZero(message = "Minimum quantity must not be negative")
+    Double minimumQuantity,
+    
+    @Positive(message = "Target quantity must be positive")
+    Double targetQuantity
 ) {}
@@ -0,0 +1,17 @@
+package com.viniciusvr.edespensa.presentation.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for quick purchasing many items at once.
+ */
+public record QuickPurchaseBatchRequest(
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 1000, message = "At most 1000 items per request")
+    @Valid
+    List<QuickPurchaseRequest> items
+) {}
@@ -0,0 +1,17 @@
+package com.viniciusvr.edespensa.presentation.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for the shopping list checkout.
+ */
+public record CheckoutResponse(
+    int itemsCheckedOut,
+    List<PantryItemResponse> pantryItems,
+    String message
+) {
+    public static CheckoutResponse from(List<PantryItemResponse> pantryItems) {
+        return new CheckoutResponse(pantryItems.size(), pantryItems,
+            pantryItems.size() + " item(s) moved to the pantry.");
+    }
+}
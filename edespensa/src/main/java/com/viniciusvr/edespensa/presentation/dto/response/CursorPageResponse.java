@@ -0,0 +1,25 @@
+package com.viniciusvr.edespensa.presentation.dto.response;
+
+import com.viniciusvr.edespensa.domain.repository.CursorPage;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Response DTO for one page of a cursor-paginated listing.
+ * Pass {@code nextCursor} back as the {@code cursor} parameter to fetch the following page.
+ */
+public record CursorPageResponse<T>(
+    List<T> items,
+    String nextCursor,
+    boolean hasNext
+) {
+    public static <D, T> CursorPageResponse<T> fromDomain(CursorPage<D> page, Function<D, T> mapper) {
+        return new CursorPageResponse<>(
+            page.items().stream().map(mapper).collect(Collectors.toList()),
+            page.nextCursor(),
+            page.hasNext()
+        );
+    }
+}
@@ -1,10 +1,12 @@
 package com.viniciusvr.edespensa.presentation.dto.response;
 
 import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.repository.PantryItemView;
 import java.time.LocalDate;
 
 /**
- * Response DTO for pantry item data.
+ * Response DTO for pantry item data. {@code isBelowLowStockThreshold} looks at this item's quantity
+ * alone; whether its product is low on stock comes from the dashboard alerts.
  */
 public record PantryItemResponse(
     Long id,
@@ -16,7 +18,7 @@ public record PantryItemResponse(
     String notes,
     boolean isExpired,
     boolean isExpiringSoon,
-    boolean isLowStock
+    boolean isBelowLowStockThreshold
 ) {
     /**
      * Default expiring soon threshold in days (configurable via pantry.expiring-soon-days).
@@ -46,4 +48,28 @@ public record PantryItemResponse(
             item.isLowStock(lowStockThreshold)
         );
     }
+
+    public static PantryItemResponse fromView(PantryItemView item) {
+        return new PantryItemResponse(
+            item.id(),
+            new ProductResponse(
+                item.productId(),
+                item.productName(),
+                item.productCategory(),
+                item.productUnit(),
+                item.productDescription(),
+                item.productTrackExpiration(),
+                item.productMinimumQuantity(),
+                item.productTargetQuantity()
+            ),
+            item.quantity(),
+            item.expirationDate(),
+            item.addedDate(),
+            item.location(),
+            item.notes(),
+            item.isExpired(),
+            item.isExpiringSoon(DEFAULT_EXPIRING_SOON_DAYS),
+            item.isLowStock(DEFAULT_LOW_STOCK_THRESHOLD)
+        );
+    }
 }
@@ -11,7 +11,9 @@ public record ProductResponse(
     String category,
     String unit,
     String description,
-    boolean trackExpiration
+    boolean trackExpiration,
+    Double minimumQuantity,
+    Double targetQuantity
 ) {
     public static ProductResponse fromDomain(Product product) {
         return new ProductResponse(
@@ -20,7 +22,9 @@ public record ProductResponse(
             product.getCategory(),
             product.getUnit(),
             product.getDescription(),
-            product.isTrackExpiration()
+            product.isTrackExpiration(),
+            product.getMinimumQuantity(),
+            product.getTargetQuantity()
         );
     }
 }
@@ -1,6 +1,7 @@
 package com.viniciusvr.edespensa.presentation.dto.response;
 
 import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemView;
 import java.time.LocalDateTime;
 
 /**
@@ -28,4 +29,26 @@ public record ShoppingListItemResponse(
             item.isAutoAdded()
         );
     }
+
+    public static ShoppingListItemResponse fromView(ShoppingListItemView item) {
+        return new ShoppingListItemResponse(
+            item.id(),
+            new ProductResponse(
+                item.productId(),
+                item.productName(),
+                item.productCategory(),
+                item.productUnit(),
+                item.productDescription(),
+                item.productTrackExpiration(),
+                item.productMinimumQuantity(),
+                item.productTargetQuantity()
+            ),
+            item.quantity(),
+            item.priority(),
+            item.status(),
+            item.addedAt(),
+            item.notes(),
+            item.autoAdded()
+        );
+    }
 }
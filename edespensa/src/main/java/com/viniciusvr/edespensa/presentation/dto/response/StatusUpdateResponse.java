@@ -0,0 +1,26 @@
+package com.viniciusvr.edespensa.presentation.dto.response;
+
+import com.viniciusvr.edespensa.application.dto.StatusUpdateResultDto;
+
+import java.util.List;
+
+/**
+ * Response DTO for batch status transitions of shopping list items.
+ */
+public record StatusUpdateResponse(
+    int itemsUpdated,
+    List<Long> updatedIds,
+    List<Long> notPendingIds,
+    List<Long> notFoundIds,
+    String message
+) {
+    public static StatusUpdateResponse from(StatusUpdateResultDto result) {
+        return new StatusUpdateResponse(
+            result.updatedIds().size(),
+            result.updatedIds(),
+            result.notPendingIds(),
+            result.notFoundIds(),
+            result.message()
+        );
+    }
+}
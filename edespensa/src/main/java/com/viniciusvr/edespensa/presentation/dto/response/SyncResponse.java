@@ -0,0 +1,38 @@
+package com.viniciusvr.edespensa.presentation.dto.response;
+
+import com.viniciusvr.edespensa.application.dto.SyncResultDto;
+
+import java.util.List;
+
+/**
+ * Response DTO for delta sync. Apply the changes, then pass {@code cursor} back as {@code since};
+ * while {@code hasMore} is set, more changes are waiting. On {@code reset}, drop the local copy first.
+ */
+public record SyncResponse(
+    long cursor,
+    boolean reset,
+    boolean hasMore,
+    Changes<ProductResponse> products,
+    Changes<PantryItemResponse> pantryItems,
+    Changes<ShoppingListItemResponse> shoppingListItems
+) {
+    /**
+     * Created or updated records in their current state, and ids of deleted ones.
+     */
+    public record Changes<T>(List<T> upserted, List<Long> deleted) {
+    }
+
+    public static SyncResponse fromDomain(SyncResultDto result) {
+        return new SyncResponse(
+            result.cursor(),
+            result.reset(),
+            result.hasMore(),
+            new Changes<>(result.products().stream().map(ProductResponse::fromDomain).toList(),
+                result.deletedProductIds()),
+            new Changes<>(result.pantryItems().stream().map(PantryItemResponse::fromDomain).toList(),
+                result.deletedPantryItemIds()),
+            new Changes<>(result.shoppingListItems().stream().map(ShoppingListItemResponse::fromDomain).toList(),
+                result.deletedShoppingListItemIds())
+        );
+    }
+}
@@ -0,0 +1,259 @@
+package com.viniciusvr.edespensa.presentation.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fans change events out to Server-Sent Events subscribers. An idle subscriber costs an open async
+ * request and an empty queue, no thread. The events of one change are rendered once, shared by all
+ * subscribers, and only queued on publish; a virtual thread drains a queue while it has messages, so a
+ * slow client never holds up the others or the publisher. A burst is always taken by an empty queue,
+ * but a subscriber that still has more than the buffer's worth of events queued, or made no progress
+ * between two heartbeats, is disconnected instead of being buffered for without limit.
+ */
+public class ChangeEventBroadcaster implements DisposableBean {
+
+    private static final MediaType EVENT_TEXT = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    /**
+     * Ready-to-write stream text and the number of events in it.
+     */
+    private record Message(String text, int events) {
+    }
+
+    private static final Message HEARTBEAT = new Message(":\n\n", 0);
+
+    private final int bufferSize;
+    private final ObjectMapper objectMapper;
+    private final Supplier<SseEmitter> emitters;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats;
+    private final AtomicLong eventIds = new AtomicLong();
+    private final Counter dropped;
+
+    /**
+     * @param bufferSize events a subscriber may have queued before it counts as too slow
+     * @param heartbeatInterval how often an idle stream gets a comment line
+     */
+    public ChangeEventBroadcaster(int bufferSize, Duration heartbeatInterval, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        // No timeout: a stream stays open until the client leaves or falls behind
+        this(bufferSize, heartbeatInterval, objectMapper, meterRegistry, () -> new SseEmitter(0L));
+    }
+
+    ChangeEventBroadcaster(int bufferSize, Duration heartbeatInterval, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry, Supplier<SseEmitter> emitters) {
+        this.bufferSize = bufferSize;
+        this.objectMapper = objectMapper;
+        this.emitters = emitters;
+        Gauge.builder("events.subscribers", subscribers, Set::size)
+                .description("Open change event streams")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("events.subscribers.dropped")
+                .description("Change event streams closed because the client fell behind")
+                .register(meterRegistry);
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("sse-heartbeat").daemon().factory());
+        long intervalMillis = heartbeatInterval.toMillis();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream that receives every event published from now on.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = emitters.get();
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscribers.add(subscriber);
+        // Commits the response right away, so the client knows it is connected
+        subscriber.offer(HEARTBEAT);
+        return emitter;
+    }
+
+    /**
+     * Queues the events of one change for every subscriber; never blocks.
+     */
+    public void publish(List<ChangeEventDto> events) {
+        if (subscribers.isEmpty()) return;
+        StringBuilder text = new StringBuilder(events.size() * 160);
+        try {
+            for (ChangeEventDto event : events) {
+                text.append("id:").append(eventIds.incrementAndGet()).append('\n')
+                        .append("event:").append(event.type().name()).append('\n')
+                        .append("data:").append(objectMapper.writeValueAsString(event)).append("\n\n");
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Message message = new Message(text.toString(), events.size());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        senders.shutdown();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Message> queue = new ArrayDeque<>();
+        private int queuedEvents;
+        private boolean draining;
+        private long sentMessages;
+        private long sentAtLastHeartbeat;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Message message) {
+            synchronized (this) {
+                if (closed) return;
+                if (!queue.isEmpty() && queuedEvents + message.events() > bufferSize) {
+                    dropped.increment();
+                    closeLater();
+                    return;
+                }
+                queue.add(message);
+                queuedEvents += message.events();
+                if (draining) return;
+                draining = true;
+            }
+            startDrain();
+        }
+
+        /**
+         * Sends a comment on an idle stream; a stream still stuck on the same messages since the last
+         * heartbeat is closed.
+         */
+        void heartbeat() {
+            synchronized (this) {
+                if (closed) return;
+                if (!queue.isEmpty()) {
+                    if (sentMessages == sentAtLastHeartbeat) {
+                        dropped.increment();
+                        closeLater();
+                    }
+                    sentAtLastHeartbeat = sentMessages;
+                    return;
+                }
+                sentAtLastHeartbeat = sentMessages;
+            }
+            offer(HEARTBEAT);
+        }
+
+        private void startDrain() {
+            try {
+                senders.execute(this::drain);
+            } catch (RuntimeException e) {
+                // Shutting down
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                StringBuilder text = new StringBuilder();
+                int messages = 0;
+                synchronized (this) {
+                    Message message;
+                    while ((message = queue.poll()) != null) {
+                        text.append(message.text());
+                        queuedEvents -= message.events();
+                        messages++;
+                    }
+                    if (messages == 0 || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    // Everything queued goes out in one write and flush
+                    emitter.send(Set.of(new DataWithMediaType(text.toString(), EVENT_TEXT)));
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or stream already completed
+                    close();
+                    return;
+                }
+                synchronized (this) {
+                    sentMessages += messages;
+                }
+            }
+        }
+
+        /**
+         * Closes from a thread that must not block on the client's connection.
+         */
+        private void closeLater() {
+            closed = true;
+            queue.clear();
+            queuedEvents = 0;
+            subscribers.remove(this);
+            try {
+                senders.execute(this::complete);
+            } catch (RuntimeException e) {
+                // Shutting down, streams are completed there
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+                queuedEvents = 0;
+            }
+            subscribers.remove(this);
+            complete();
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // Already completed
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+-- Initial schema: catalog, pantry and shopping list.
+-- Ids come from pooled sequences (allocation size 50, see the JPA entities).
+
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE pantry_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE shopping_list_items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE products (
+    id               BIGINT       NOT NULL,
+    name             VARCHAR(255) NOT NULL,
+    category         VARCHAR(255) NOT NULL,
+    unit             VARCHAR(255) NOT NULL,
+    description      VARCHAR(255),
+    track_expiration BOOLEAN,
+    CONSTRAINT pk_products PRIMARY KEY (id),
+    CONSTRAINT uk_products_name UNIQUE (name)
+);
+
+CREATE TABLE pantry_items (
+    id              BIGINT       NOT NULL,
+    product_id      BIGINT       NOT NULL,
+    quantity        FLOAT(53)    NOT NULL,
+    expiration_date DATE,
+    added_date      DATE         NOT NULL,
+    location        VARCHAR(255),
+    notes           VARCHAR(255),
+    CONSTRAINT pk_pantry_items PRIMARY KEY (id),
+    CONSTRAINT fk_pantry_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE shopping_list_items (
+    id         BIGINT       NOT NULL,
+    product_id BIGINT       NOT NULL,
+    quantity   FLOAT(53),
+    priority   VARCHAR(20)  NOT NULL,
+    status     VARCHAR(20)  NOT NULL,
+    added_at   TIMESTAMP(6) NOT NULL,
+    notes      VARCHAR(255),
+    auto_added BOOLEAN,
+    CONSTRAINT pk_shopping_list_items PRIMARY KEY (id),
+    CONSTRAINT fk_shopping_list_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- findByCategory
+CREATE INDEX idx_products_category ON products (category);
+
+-- findExpiringSoon, findByExpirationDateBefore/Between, expired discards
+CREATE INDEX idx_pantry_items_expiration_date ON pantry_items (expiration_date);
+-- findLowStock, findByQuantityLessThanEqual
+CREATE INDEX idx_pantry_items_quantity ON pantry_items (quantity);
+-- findByProductId, lots of a product in expiration order
+CREATE INDEX idx_pantry_items_product_expiration ON pantry_items (product_id, expiration_date);
+
+-- existsPendingByProductId, findPendingByProductId, findPendingProductIds
+CREATE INDEX idx_shopping_list_items_product_status ON shopping_list_items (product_id, status);
+-- findPendingItems, findByStatus
+CREATE INDEX idx_shopping_list_items_status ON shopping_list_items (status);
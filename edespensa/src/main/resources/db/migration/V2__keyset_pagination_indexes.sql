@@ -0,0 +1,19 @@
+-- Keyset pagination seeks on (sort key, id), so every sortable column is indexed together with the id.
+
+-- product page sorted by name or category
+CREATE INDEX idx_products_name_id ON products (name, id);
+DROP INDEX idx_products_category;
+CREATE INDEX idx_products_category_id ON products (category, id);
+
+-- pantry page sorted by expiration date or quantity
+DROP INDEX idx_pantry_items_expiration_date;
+CREATE INDEX idx_pantry_items_expiration_date_id ON pantry_items (expiration_date, id);
+DROP INDEX idx_pantry_items_quantity;
+CREATE INDEX idx_pantry_items_quantity_id ON pantry_items (quantity, id);
+-- pantry page filtered by location
+CREATE INDEX idx_pantry_items_location_id ON pantry_items (location, id);
+
+-- shopping list page sorted by added date, optionally filtered by status
+CREATE INDEX idx_shopping_list_items_added_at_id ON shopping_list_items (added_at, id);
+DROP INDEX idx_shopping_list_items_status;
+CREATE INDEX idx_shopping_list_items_status_added_at_id ON shopping_list_items (status, added_at, id);
@@ -0,0 +1,44 @@
+-- Change log for delta sync. One row per entity holding the sequence number of its latest change;
+-- a deleted entity keeps a tombstone row until every sync client has moved past it.
+CREATE TABLE change_log (
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    seq         BIGINT      NOT NULL,
+    deleted     BOOLEAN     NOT NULL,
+    CONSTRAINT pk_change_log PRIMARY KEY (entity_type, entity_id),
+    -- changes since a cursor, tombstone compaction
+    CONSTRAINT uk_change_log_seq UNIQUE (seq)
+);
+
+-- Single row: last sequence number handed out and the cursor up to which tombstones were compacted.
+-- Writers number their changes while holding this row's lock, so numbers follow commit order.
+CREATE TABLE change_log_head (
+    id                INT    NOT NULL,
+    last_seq          BIGINT NOT NULL,
+    compacted_through BIGINT NOT NULL,
+    CONSTRAINT pk_change_log_head PRIMARY KEY (id)
+);
+
+-- Cursor each sync client last reported as applied, and when it was last seen
+CREATE TABLE sync_clients (
+    client_id  VARCHAR(64)  NOT NULL,
+    cursor_seq BIGINT       NOT NULL,
+    last_seen  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_sync_clients PRIMARY KEY (client_id)
+);
+
+-- Rows that exist before the log starts count as changed once, so a first sync returns everything
+INSERT INTO change_log (entity_type, entity_id, seq, deleted)
+SELECT 'PRODUCT', id, ROW_NUMBER() OVER (ORDER BY id), FALSE FROM products;
+
+INSERT INTO change_log (entity_type, entity_id, seq, deleted)
+SELECT 'PANTRY_ITEM', id, (SELECT COUNT(*) FROM products) + ROW_NUMBER() OVER (ORDER BY id), FALSE
+FROM pantry_items;
+
+INSERT INTO change_log (entity_type, entity_id, seq, deleted)
+SELECT 'SHOPPING_LIST_ITEM', id,
+       (SELECT COUNT(*) FROM products) + (SELECT COUNT(*) FROM pantry_items) + ROW_NUMBER() OVER (ORDER BY id), FALSE
+FROM shopping_list_items;
+
+INSERT INTO change_log_head (id, last_seq, compacted_through)
+SELECT 1, COUNT(*), 0 FROM change_log;
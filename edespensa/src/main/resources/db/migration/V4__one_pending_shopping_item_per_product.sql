@@ -0,0 +1,41 @@
+-- At most one PENDING shopping list item per product, enforced by the database so concurrent adds
+-- cannot create duplicates. H2 has no partial indexes: the unique index is on a generated column that
+-- holds the product id while the item is pending and NULL otherwise, and NULLs never collide.
+
+-- Fold any existing duplicates into the oldest pending item of each product first
+UPDATE shopping_list_items s
+SET quantity = (SELECT SUM(d.quantity) FROM shopping_list_items d
+                WHERE d.product_id = s.product_id AND d.status = 'PENDING')
+WHERE s.status = 'PENDING'
+  AND s.id = (SELECT MIN(d.id) FROM shopping_list_items d
+              WHERE d.product_id = s.product_id AND d.status = 'PENDING')
+  AND EXISTS (SELECT 1 FROM shopping_list_items d
+              WHERE d.product_id = s.product_id AND d.status = 'PENDING' AND d.id <> s.id);
+
+-- Both the kept and the removed items count as changed for delta sync. Adding last_seq to a logged
+-- sequence number keeps numbers unique and after every number handed out so far.
+UPDATE change_log c
+SET seq = c.seq + (SELECT last_seq FROM change_log_head WHERE id = 1),
+    deleted = EXISTS (SELECT 1 FROM shopping_list_items s
+                      WHERE s.id = c.entity_id AND s.id > (SELECT MIN(d.id) FROM shopping_list_items d
+                                                           WHERE d.product_id = s.product_id AND d.status = 'PENDING'))
+WHERE c.entity_type = 'SHOPPING_LIST_ITEM'
+  AND c.entity_id IN (SELECT s.id FROM shopping_list_items s
+                      WHERE s.status = 'PENDING'
+                        AND EXISTS (SELECT 1 FROM shopping_list_items d
+                                    WHERE d.product_id = s.product_id AND d.status = 'PENDING' AND d.id <> s.id));
+
+DELETE FROM shopping_list_items s
+WHERE s.status = 'PENDING'
+  AND s.id > (SELECT MIN(d.id) FROM shopping_list_items d
+              WHERE d.product_id = s.product_id AND d.status = 'PENDING');
+
+UPDATE change_log_head
+SET last_seq = GREATEST(last_seq, (SELECT COALESCE(MAX(seq), 0) FROM change_log))
+WHERE id = 1;
+
+ALTER TABLE shopping_list_items ADD COLUMN pending_product_id BIGINT
+    GENERATED ALWAYS AS (CASE WHEN status = 'PENDING' THEN product_id END);
+
+-- Single-statement adds merge on this key; also serves the pending lookup by product
+CREATE UNIQUE INDEX uk_shopping_list_items_pending_product ON shopping_list_items (pending_product_id);
@@ -0,0 +1,4 @@
+-- Optimistic locking: every update checks and increments the row's version, so concurrent
+-- read-modify-write updates of the same item are detected instead of silently overwritten.
+ALTER TABLE pantry_items ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE shopping_list_items ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,4 @@
+-- Reorder quantities per product: the stock at or below which the product is low, and the stock
+-- to buy back up to. NULL falls back to the configured default minimum.
+ALTER TABLE products ADD COLUMN minimum_quantity FLOAT(53);
+ALTER TABLE products ADD COLUMN target_quantity FLOAT(53);
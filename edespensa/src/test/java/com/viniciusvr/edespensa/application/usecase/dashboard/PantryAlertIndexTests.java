@@ -0,0 +1,130 @@
+package com.viniciusvr.edespensa.application.usecase.dashboard;
+
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto;
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto.Type;
+import com.viniciusvr.edespensa.application.dto.ProductStockDto;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Item states reach the index in whatever order their transactions' callbacks run; an older state
+ * never replaces a newer one, and a removed item never comes back. A product with a minimum quantity
+ * of its own stays in the stock alerts when its last item goes.
+ */
+class PantryAlertIndexTests {
+
+    private static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    private final ChangeEvents events = new ChangeEvents(3);
+    private final PantryAlertIndex index = new PantryAlertIndex(null, null, events, 1.0);
+    private final List<ChangeEventDto> published = new ArrayList<>();
+    private final Product rice = new Product(1L, "Arroz", "Grãos", "kg", null, true);
+
+    @BeforeEach
+    void listen() {
+        events.addListener(published::addAll);
+    }
+
+    @Test
+    void appliesANewerStateOfAnItem() {
+        index.put(item(10L, 1L, 1.0, null));
+        index.put(item(10L, 2L, 3.0, YESTERDAY));
+
+        assertThat(index.findStock(rice.getId()).totalQuantity()).isEqualTo(3.0);
+        assertThat(index.findExpired(LocalDate.now())).extracting(PantryItem::getId).containsExactly(10L);
+    }
+
+    @Test
+    void dropsAStateOlderThanTheIndexedOne() {
+        index.put(item(10L, 2L, 5.0, null));
+        published.clear();
+
+        index.put(item(10L, 1L, 0.5, YESTERDAY));
+
+        assertThat(index.findStock(rice.getId()).totalQuantity()).isEqualTo(5.0);
+        assertThat(index.findExpired(LocalDate.now())).isEmpty();
+        assertThat(index.findLowStock()).isEmpty();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void dropsAStateOfAnItemAlreadyRemoved() {
+        index.put(item(10L, 1L, 2.0, null));
+        index.put(item(11L, 1L, 3.0, null));
+        index.remove(10L);
+        published.clear();
+
+        // Committed before the removal, whatever its version
+        index.put(item(10L, 2L, 0.5, YESTERDAY));
+
+        assertThat(index.findStock(rice.getId()).totalQuantity()).isEqualTo(3.0);
+        assertThat(index.findStock(rice.getId()).itemCount()).isEqualTo(1);
+        assertThat(index.findExpired(LocalDate.now())).isEmpty();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void keepsAProductWithItsOwnMinimumAsLowStockAtZero() {
+        Product beans = new Product(2L, "Feijão", "Grãos", "kg", null, true, 2.0, 5.0);
+        index.put(item(20L, beans, 1L, 3.0, null));
+        published.clear();
+
+        index.remove(20L);
+
+        ProductStockDto stock = index.findStock(beans.getId());
+        assertThat(stock.totalQuantity()).isZero();
+        assertThat(stock.itemCount()).isZero();
+        assertThat(stock.missingQuantity()).isEqualTo(5.0);
+        assertThat(index.findLowStock()).extracting(ProductStockDto::productId).containsExactly(beans.getId());
+        assertThat(index.findFirstExpiringItemId(beans.getId())).isNull();
+        assertThat(published).extracting(ChangeEventDto::type, ChangeEventDto::alertType)
+                .containsExactly(tuple(Type.ALERT_ENTERED, "LOW_STOCK"));
+
+        // Stocked again, the entry goes on from zero
+        index.put(item(21L, beans, 0L, 4.0, null));
+        assertThat(index.findStock(beans.getId()).totalQuantity()).isEqualTo(4.0);
+        assertThat(index.findLowStock()).isEmpty();
+    }
+
+    @Test
+    void dropsAProductOnTheDefaultMinimumWithItsLastItem() {
+        index.put(item(10L, 1L, 3.0, null));
+
+        index.remove(10L);
+
+        assertThat(index.findStock(rice.getId())).isNull();
+        assertThat(index.findLowStock()).isEmpty();
+    }
+
+    @Test
+    void givesAnEmptyProductAnEntryOnlyWhileItHasItsOwnMinimum() {
+        Product salt = new Product(3L, "Sal", "Temperos", "un", null, false, 1.0, null);
+
+        index.updateProduct(salt);
+        assertThat(index.findLowStock()).extracting(ProductStockDto::productId).containsExactly(salt.getId());
+
+        index.updateProduct(new Product(3L, "Sal", "Temperos", "un", null, false));
+        assertThat(index.findStock(salt.getId())).isNull();
+        assertThat(index.findLowStock()).isEmpty();
+    }
+
+    private PantryItem item(Long id, Long version, double quantity, LocalDate expirationDate) {
+        return item(id, rice, version, quantity, expirationDate);
+    }
+
+    private PantryItem item(Long id, Product product, Long version, double quantity, LocalDate expirationDate) {
+        PantryItem item = new PantryItem(id, product, quantity, expirationDate, LocalDate.now(), null, null);
+        item.setVersion(version);
+        return item;
+    }
+}
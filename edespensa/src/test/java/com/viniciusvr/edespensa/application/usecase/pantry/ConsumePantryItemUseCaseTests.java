@@ -0,0 +1,181 @@
+package com.viniciusvr.edespensa.application.usecase.pantry;
+
+import com.viniciusvr.edespensa.application.dto.ConsumptionResultDto;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.exception.InsufficientQuantityException;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Consuming a product draws from its lots first-expired-first-out, all or nothing, and concurrent
+ * draws of one product never take more than it holds.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ConsumePantryItemUseCaseTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final int CALLERS = 4;
+
+    @Autowired
+    private ConsumePantryItemUseCase consumeUseCase;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PantryItemRepository pantryItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void drainsTheLotsThatExpireFirst() {
+        Product product = newProduct();
+        PantryItem later = newLot(product, 2.0, TODAY.plusDays(9));
+        PantryItem first = newLot(product, 1.0, TODAY.plusDays(1));
+        PantryItem second = newLot(product, 1.0, TODAY.plusDays(3));
+
+        ConsumptionResultDto result = consumeUseCase.consumeProduct(product.getId(), 2.0);
+
+        assertThat(result.itemsConsumed()).isEqualTo(2);
+        assertThat(result.depletedItemIds()).containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(quantities(product)).containsExactly(Map.entry(later.getId(), 2.0));
+    }
+
+    @Test
+    void drawsFromUndatedLotsLast() {
+        Product product = newProduct();
+        PantryItem undated = newLot(product, 1.0, null);
+        PantryItem dated = newLot(product, 1.0, TODAY.plusDays(30));
+
+        ConsumptionResultDto result = consumeUseCase.consumeProduct(product.getId(), 1.5);
+
+        assertThat(result.depletedItemIds()).containsExactly(dated.getId());
+        assertThat(quantities(product)).containsExactly(Map.entry(undated.getId(), 0.5));
+    }
+
+    @Test
+    void takesOnlyWhatIsNeededFromTheLastLot() {
+        Product product = newProduct();
+        PantryItem first = newLot(product, 2.0, TODAY.plusDays(1));
+        PantryItem last = newLot(product, 3.0, TODAY.plusDays(2));
+
+        ConsumptionResultDto result = consumeUseCase.consumeProduct(product.getId(), 4.0);
+
+        assertThat(result.itemsConsumed()).isEqualTo(2);
+        assertThat(result.depletedItemIds()).containsExactly(first.getId());
+        assertThat(quantities(product)).containsExactly(Map.entry(last.getId(), 1.0));
+    }
+
+    @Test
+    void rejectsMoreThanTheProductHoldsWithoutTakingAnything() throws Exception {
+        Product product = newProduct();
+        PantryItem first = newLot(product, 1.0, TODAY.plusDays(1));
+        PantryItem second = newLot(product, 2.0, null);
+
+        mockMvc.perform(post("/api/pantry/product/{productId}/consume", product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 3.5}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(quantities(product)).containsOnly(Map.entry(first.getId(), 1.0), Map.entry(second.getId(), 2.0));
+    }
+
+    @Test
+    void answersNotFoundForAnUnknownProduct() throws Exception {
+        mockMvc.perform(post("/api/pantry/product/{productId}/consume", Long.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 1}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void concurrentDrawsNeverTakeMoreThanTheProductHolds() throws Exception {
+        Product product = newProduct();
+        newLot(product, 3.0, TODAY.plusDays(1));
+        newLot(product, 3.0, TODAY.plusDays(2));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<ConsumptionResultDto>> calls = new ArrayList<>();
+        int succeeded = 0;
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return consumeUseCase.consumeProduct(product.getId(), 2.0);
+                }));
+            }
+            start.countDown();
+            for (Future<ConsumptionResultDto> call : calls) {
+                try {
+                    call.get();
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(InsufficientQuantityException.class);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(succeeded).isEqualTo(3);
+        assertThat(pantryItemRepository.findByProductId(product.getId())).isEmpty();
+    }
+
+    /**
+     * Remaining quantity of each of the product's lots, by lot id.
+     */
+    private Map<Long, Double> quantities(Product product) {
+        return pantryItemRepository.findByProductId(product.getId()).stream()
+                .sorted(Comparator.comparing(PantryItem::getId))
+                .collect(Collectors.toMap(PantryItem::getId, PantryItem::getQuantity));
+    }
+
+    private Product newProduct() {
+        return transactionTemplate.execute(status ->
+                productRepository.save(Product.createNew("Consume " + UUID.randomUUID(), "Outros", "un", null, true)));
+    }
+
+    private PantryItem newLot(Product product, double quantity, LocalDate expirationDate) {
+        return transactionTemplate.execute(status ->
+                pantryItemRepository.save(PantryItem.createNew(product, quantity, expirationDate, null, null)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.viniciusvr.edespensa.application.usecase.pantry;
+
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto;
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto.Type;
+import com.viniciusvr.edespensa.application.usecase.ChangeEvents;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Discarded pantry items are announced with the product they belonged to, by every discard path
+ * and by a plain delete.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class DiscardPantryItemUseCaseTests {
+
+    /**
+     * Discard events seen by this test class; the context, and so the listener, is shared by all tests.
+     */
+    private static final Map<Long, ChangeEventDto> DISCARDED = new ConcurrentHashMap<>();
+    private static boolean listening;
+
+    @Autowired
+    private DiscardPantryItemUseCase discardUseCase;
+
+    @Autowired
+    private PantryManagementUseCase pantryUseCase;
+
+    @Autowired
+    private ChangeEvents changeEvents;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PantryItemRepository pantryItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void listen() {
+        if (!listening) {
+            changeEvents.addListener(events -> events.stream()
+                    .filter(event -> event.type() == Type.ITEM_DISCARDED)
+                    .forEach(event -> DISCARDED.put(event.itemId(), event)));
+            listening = true;
+        }
+    }
+
+    @Test
+    void announcesTheProductOfASingleDiscardedItem() {
+        Product product = newProduct();
+        PantryItem item = newItem(product, null);
+
+        discardUseCase.discardItem(item.getId());
+
+        assertDiscarded(product, item);
+    }
+
+    @Test
+    void announcesTheProductsOfBatchDiscardedItems() {
+        Product rice = newProduct();
+        Product beans = newProduct();
+        PantryItem first = newItem(rice, null);
+        PantryItem second = newItem(beans, null);
+
+        discardUseCase.discardItems(List.of(first.getId(), second.getId()));
+
+        assertDiscarded(rice, first);
+        assertDiscarded(beans, second);
+    }
+
+    @Test
+    void announcesTheProductsOfDiscardedExpiredItems() {
+        Product product = newProduct();
+        PantryItem expired = newItem(product, LocalDate.now().minusDays(1));
+
+        discardUseCase.discardAllExpired();
+
+        assertDiscarded(product, expired);
+    }
+
+    @Test
+    void announcesTheProductOfADeletedItem() {
+        Product product = newProduct();
+        PantryItem item = newItem(product, null);
+
+        pantryUseCase.deletePantryItem(item.getId());
+
+        assertDiscarded(product, item);
+    }
+
+    private void assertDiscarded(Product product, PantryItem item) {
+        ChangeEventDto event = DISCARDED.get(item.getId());
+        assertThat(event).isNotNull();
+        assertThat(event.productId()).isEqualTo(product.getId());
+        assertThat(event.productName()).isEqualTo(product.getName());
+    }
+
+    private Product newProduct() {
+        return transactionTemplate.execute(status ->
+                productRepository.save(Product.createNew("Discard " + UUID.randomUUID(), "Outros", "un", null, true)));
+    }
+
+    private PantryItem newItem(Product product, LocalDate expirationDate) {
+        return transactionTemplate.execute(status ->
+                pantryItemRepository.save(PantryItem.createNew(product, 1.0, expirationDate, null, null)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.viniciusvr.edespensa.application.usecase.shoppinglist;
+
+import com.viniciusvr.edespensa.application.dto.CheckoutItemDto;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.exception.BusinessRuleException;
+import com.viniciusvr.edespensa.domain.exception.ConcurrentUpdateException;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checkout moves each pending item to purchased exactly once, however many requests race for it.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class CheckoutUseCaseTests {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private CheckoutUseCase checkoutUseCase;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShoppingListItemRepository shoppingListRepository;
+
+    @Autowired
+    private PantryItemRepository pantryItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentCheckoutsOfTheSameItemAddOnePantryItem() throws Exception {
+        Product product = newProduct();
+        Long itemId = newPendingItem(product);
+        List<CheckoutItemDto> request = List.of(new CheckoutItemDto(itemId, 2.0, null, null));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<?>> calls = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return checkoutUseCase.checkout(request);
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<?> call : calls) {
+                try {
+                    call.get();
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    // Losers see the item already purchased, or give up on the conflict
+                    assertThat(e.getCause()).isInstanceOfAny(BusinessRuleException.class, ConcurrentUpdateException.class);
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(pantryItemRepository.findByProductId(product.getId())).hasSize(1);
+        assertThat(shoppingListRepository.findById(itemId).orElseThrow().getStatus())
+                .isEqualTo(ShoppingListItem.Status.PURCHASED);
+    }
+
+    @Test
+    void rejectsAnItemThatIsNoLongerPendingWithoutAddingAnything() {
+        Product product = newProduct();
+        Long pendingId = newPendingItem(product);
+        Long purchasedId = newPendingItem(newProduct());
+        checkoutUseCase.checkout(List.of(new CheckoutItemDto(purchasedId, null, null, null)));
+
+        assertThatThrownBy(() -> checkoutUseCase.checkout(List.of(
+                new CheckoutItemDto(pendingId, null, null, null),
+                new CheckoutItemDto(purchasedId, null, null, null))))
+                .isInstanceOf(BusinessRuleException.class);
+
+        assertThat(pantryItemRepository.findByProductId(product.getId())).isEmpty();
+        assertThat(shoppingListRepository.findById(pendingId).orElseThrow().isPending()).isTrue();
+    }
+
+    private Product newProduct() {
+        return transactionTemplate.execute(status ->
+                productRepository.save(Product.createNew("Checkout " + UUID.randomUUID(), "Outros", "un", null, false)));
+    }
+
+    private Long newPendingItem(Product product) {
+        return transactionTemplate.execute(status -> shoppingListRepository.save(
+                ShoppingListItem.createNew(product, 1.0, ShoppingListItem.Priority.MEDIUM, null)).getId());
+    }
+}
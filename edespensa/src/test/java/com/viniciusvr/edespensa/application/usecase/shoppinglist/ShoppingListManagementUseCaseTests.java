@@ -0,0 +1,137 @@
+package com.viniciusvr.edespensa.application.usecase.shoppinglist;
+
+import com.viniciusvr.edespensa.application.dto.StatusUpdateResultDto;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batch purchases and cancellations move only pending items, and report the ones another request
+ * moved first instead of overwriting them. Clearing purchased items removes them all, chunk by chunk.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ShoppingListManagementUseCaseTests {
+
+    private static final int ITEMS = 20;
+    private static final int CLEAR_CHUNK_SIZE = 500;
+
+    @Autowired
+    private ShoppingListManagementUseCase shoppingListUseCase;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShoppingListItemRepository shoppingListRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void reportsItemsThatAreNotPendingOrDoNotExist() {
+        Long pendingId = newPendingItem();
+        Long cancelledId = newPendingItem();
+        shoppingListUseCase.cancelItem(cancelledId);
+        Long unknownId = Long.MAX_VALUE;
+
+        StatusUpdateResultDto result = shoppingListUseCase.markAsPurchasedBatch(
+                List.of(pendingId, cancelledId, unknownId));
+
+        assertThat(result.updatedIds()).containsExactly(pendingId);
+        assertThat(result.notPendingIds()).containsExactly(cancelledId);
+        assertThat(result.notFoundIds()).containsExactly(unknownId);
+        assertThat(result.message()).isEqualTo("1 item(s) marked as PURCHASED. Not pending: 1 item(s). Not found: 1 item(s).");
+        assertThat(shoppingListRepository.findById(cancelledId).orElseThrow().getStatus())
+                .isEqualTo(ShoppingListItem.Status.CANCELLED);
+    }
+
+    @Test
+    void concurrentPurchaseAndCancelMoveEachItemOnce() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            ids.add(newPendingItem());
+        }
+        // Opposite orders, so the two batches meet in the middle rather than one simply following the other
+        List<Long> reversed = new ArrayList<>(ids.reversed());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        StatusUpdateResultDto purchased;
+        StatusUpdateResultDto cancelled;
+        try {
+            Future<StatusUpdateResultDto> purchase = executor.submit(() -> {
+                start.await();
+                return shoppingListUseCase.markAsPurchasedBatch(ids);
+            });
+            Future<StatusUpdateResultDto> cancel = executor.submit(() -> {
+                start.await();
+                return shoppingListUseCase.cancelBatch(reversed);
+            });
+            start.countDown();
+            purchased = purchase.get();
+            cancelled = cancel.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<Long> moved = new HashSet<>(purchased.updatedIds());
+        moved.addAll(cancelled.updatedIds());
+        assertThat(moved).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(purchased.updatedIds().size() + cancelled.updatedIds().size()).isEqualTo(ITEMS);
+        assertThat(purchased.notPendingIds()).containsExactlyInAnyOrderElementsOf(cancelled.updatedIds());
+        assertThat(cancelled.notPendingIds()).containsExactlyInAnyOrderElementsOf(purchased.updatedIds());
+        for (Long id : ids) {
+            ShoppingListItem item = shoppingListRepository.findById(id).orElseThrow();
+            assertThat(item.getStatus()).isEqualTo(purchased.updatedIds().contains(id)
+                    ? ShoppingListItem.Status.PURCHASED : ShoppingListItem.Status.CANCELLED);
+            assertThat(item.getVersion()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void clearsPurchasedItemsOverMoreThanOneChunk() {
+        List<Long> purchasedIds = transactionTemplate.execute(status -> {
+            Product product = productRepository.save(
+                    Product.createNew("Clear " + UUID.randomUUID(), "Outros", "un", null, false));
+            List<ShoppingListItem> items = new ArrayList<>();
+            for (int i = 0; i < 2 * CLEAR_CHUNK_SIZE + 1; i++) {
+                ShoppingListItem item = ShoppingListItem.createNew(product, 1.0, ShoppingListItem.Priority.LOW, null);
+                item.markAsPurchased();
+                items.add(item);
+            }
+            return shoppingListRepository.saveAll(items).stream().map(ShoppingListItem::getId).toList();
+        });
+        Long pendingId = newPendingItem();
+
+        assertThat(shoppingListUseCase.clearPurchasedItems()).isGreaterThanOrEqualTo(purchasedIds.size());
+
+        assertThat(shoppingListRepository.findAllById(purchasedIds)).isEmpty();
+        assertThat(shoppingListRepository.findById(pendingId)).isPresent();
+    }
+
+    private Long newPendingItem() {
+        return transactionTemplate.execute(status -> {
+            Product product = productRepository.save(
+                    Product.createNew("Batch " + UUID.randomUUID(), "Outros", "un", null, false));
+            return shoppingListRepository.save(
+                    ShoppingListItem.createNew(product, 1.0, ShoppingListItem.Priority.MEDIUM, null)).getId();
+        });
+    }
+}
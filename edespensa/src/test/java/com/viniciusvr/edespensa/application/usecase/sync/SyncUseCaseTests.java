@@ -0,0 +1,71 @@
+package com.viniciusvr.edespensa.application.usecase.sync;
+
+import com.viniciusvr.edespensa.application.dto.SyncResultDto;
+import com.viniciusvr.edespensa.application.usecase.product.ProductManagementUseCase;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.ChangeLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sync polls are reads that only record the client's cursor; tombstones are compacted by the
+ * scheduled job once every client has moved past them.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class SyncUseCaseTests {
+
+    @Autowired
+    private SyncUseCase syncUseCase;
+
+    @Autowired
+    private ProductManagementUseCase productUseCase;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private TransactionAttributeSource useCaseTransactionAttributes;
+
+    @Test
+    void pollsAreReadOnly() throws Exception {
+        assertThat(useCaseTransactionAttributes.getTransactionAttribute(
+                SyncUseCase.class.getMethod("getChanges", String.class, long.class, int.class), SyncUseCase.class)
+                .isReadOnly()).isTrue();
+    }
+
+    @Test
+    void compactsTombstonesOnlyWhenTheJobRuns() {
+        String clientId = "client " + UUID.randomUUID();
+        Product product = productUseCase.createSimpleProduct("Sync " + UUID.randomUUID());
+        productUseCase.deleteProduct(product.getId());
+
+        long cursor = readAll(clientId);
+        // Sending the cursor back is what marks it as applied
+        syncUseCase.getChanges(clientId, cursor, 1);
+        long compactedThrough = changeLogRepository.findCompactedThrough();
+        assertThat(compactedThrough).isLessThan(cursor);
+        assertThat(changeLogRepository.findClientCursor(clientId)).hasValue(cursor);
+
+        syncUseCase.compactTombstones();
+
+        assertThat(changeLogRepository.findCompactedThrough()).isGreaterThanOrEqualTo(cursor);
+        assertThat(changeLogRepository.findSince(compactedThrough, Integer.MAX_VALUE))
+                .noneMatch(entry -> entry.deleted() && entry.seq() <= cursor);
+    }
+
+    private long readAll(String clientId) {
+        long cursor = 0;
+        SyncResultDto result;
+        do {
+            result = syncUseCase.getChanges(clientId, cursor, 500);
+            cursor = result.cursor();
+        } while (result.hasMore());
+        return cursor;
+    }
+}
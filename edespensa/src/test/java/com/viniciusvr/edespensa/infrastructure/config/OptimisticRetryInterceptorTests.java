@@ -0,0 +1,121 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import com.viniciusvr.edespensa.domain.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A use case call that lost a concurrent update is rerun a bounded number of times, unless its input
+ * cannot be read twice or it runs inside a transaction it does not own.
+ */
+class OptimisticRetryInterceptorTests {
+
+    private static final int MAX_ATTEMPTS = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Stock target = new Stock();
+    private final Stock stock = proxy();
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void retriesUntilTheCallSucceeds() {
+        target.conflicts = MAX_ATTEMPTS - 1;
+
+        assertThat(stock.take(List.of(1L))).isEqualTo(MAX_ATTEMPTS);
+
+        assertThat(target.calls.get()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(conflicts("retried")).isEqualTo(MAX_ATTEMPTS - 1);
+        assertThat(conflicts("exhausted")).isZero();
+    }
+
+    @Test
+    void givesUpWithAConflictOnceTheAttemptsRunOut() {
+        target.conflicts = Integer.MAX_VALUE;
+
+        assertThatThrownBy(() -> stock.take(List.of(1L)))
+                .isInstanceOf(ConcurrentUpdateException.class)
+                .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(target.calls.get()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(conflicts("retried")).isEqualTo(MAX_ATTEMPTS - 1);
+        assertThat(conflicts("exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRetryACallWhoseIteratorArgumentWasConsumed() {
+        target.conflicts = 1;
+
+        assertThatThrownBy(() -> stock.takeEach(List.of(1L, 2L).iterator()))
+                .isInstanceOf(ConcurrentUpdateException.class);
+
+        assertThat(target.calls.get()).isEqualTo(1);
+        assertThat(conflicts("exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void leavesTheConflictToTheCallerThatOwnsTheTransaction() {
+        target.conflicts = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThatThrownBy(() -> stock.take(List.of(1L)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(target.calls.get()).isEqualTo(1);
+        assertThat(conflicts("retried")).isZero();
+        assertThat(conflicts("exhausted")).isZero();
+    }
+
+    private Stock proxy() {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new OptimisticRetryInterceptor(MAX_ATTEMPTS, Duration.ZERO, meterRegistry));
+        return (Stock) factory.getProxy();
+    }
+
+    private double conflicts(String result) {
+        return meterRegistry.counter("usecase.write.conflicts", "method", "Stock.take", "result", result).count()
+                + meterRegistry.counter("usecase.write.conflicts", "method", "Stock.takeEach", "result", result).count();
+    }
+
+    /**
+     * Stand-in use case that loses the given number of races before it succeeds.
+     */
+    static class Stock {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile int conflicts;
+
+        public int take(List<Long> ids) {
+            return attempt();
+        }
+
+        public int takeEach(Iterator<Long> ids) {
+            ids.forEachRemaining(id -> { });
+            return attempt();
+        }
+
+        private int attempt() {
+            int call = calls.incrementAndGet();
+            if (call <= conflicts) {
+                throw new OptimisticLockingFailureException("lost race on call " + call);
+            }
+            return call;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.viniciusvr.edespensa.infrastructure.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.interceptor.NameMatchTransactionAttributeSource;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent identical reads share one call, and a completed write keeps later readers from getting
+ * results computed before it.
+ */
+class SingleFlightInterceptorTests {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Catalog target = new Catalog();
+
+    @AfterEach
+    void tearDown() {
+        target.gate.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalReadsShareOneCall() throws Exception {
+        Catalog catalog = proxy(Duration.ZERO);
+        target.block();
+
+        Future<String> first = executor.submit(() -> catalog.getName(1L));
+        assertThat(target.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        Future<String> joined = executor.submit(() -> catalog.getName(1L));
+        awaitCount("joined", 1);
+        target.release();
+
+        assertThat(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEqualTo("name-1#1");
+        assertThat(joined.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEqualTo("name-1#1");
+        assertThat(target.reads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void readsWithOtherArgumentsRunOnTheirOwn() throws Exception {
+        Catalog catalog = proxy(Duration.ZERO);
+        target.block();
+
+        Future<String> first = executor.submit(() -> catalog.getName(1L));
+        Future<String> other = executor.submit(() -> catalog.getName(2L));
+        awaitReads(2);
+        target.release();
+
+        assertThat(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).startsWith("name-1");
+        assertThat(other.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).startsWith("name-2");
+    }
+
+    @Test
+    void joinedCallersGetTheFailureOfTheSharedCall() throws Exception {
+        Catalog catalog = proxy(Duration.ofMinutes(1));
+        target.block();
+        target.failing = true;
+
+        Future<String> first = executor.submit(() -> catalog.getName(1L));
+        assertThat(target.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        Future<String> joined = executor.submit(() -> catalog.getName(1L));
+        awaitCount("joined", 1);
+        target.release();
+
+        Throwable failure = causeOf(first);
+        assertThat(failure).isInstanceOf(IllegalStateException.class);
+        assertThat(causeOf(joined)).isSameAs(failure);
+
+        // A failure is never kept as a fresh result
+        target.failing = false;
+        assertThat(catalog.getName(1L)).isEqualTo("name-1#2");
+    }
+
+    @Test
+    void keepsResultsFreshUntilAWriteCompletes() throws Exception {
+        Catalog catalog = proxy(Duration.ofMinutes(1));
+
+        assertThat(catalog.getName(1L)).isEqualTo("name-1#1");
+        assertThat(catalog.getName(1L)).isEqualTo("name-1#1");
+
+        catalog.rename();
+        assertThat(catalog.getName(1L)).isEqualTo("name-1#2");
+    }
+
+    @Test
+    void aReadStartedBeforeAWriteIsNotSharedAfterIt() throws Exception {
+        Catalog catalog = proxy(Duration.ofMinutes(1));
+        target.block();
+
+        Future<String> stale = executor.submit(() -> catalog.getName(1L));
+        assertThat(target.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        catalog.rename();
+        target.release();
+        String afterWrite = catalog.getName(1L);
+
+        assertThat(stale.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEqualTo("name-1#1");
+        assertThat(afterWrite).isEqualTo("name-1#2");
+        // Only the read that started after the write is kept fresh
+        assertThat(catalog.getName(1L)).isEqualTo(afterWrite);
+    }
+
+    private Catalog proxy(Duration freshFor) {
+        DefaultTransactionAttribute readOnly = new DefaultTransactionAttribute();
+        readOnly.setReadOnly(true);
+        NameMatchTransactionAttributeSource attributes = new NameMatchTransactionAttributeSource();
+        attributes.addTransactionalMethod("get*", readOnly);
+        attributes.addTransactionalMethod("*", new DefaultTransactionAttribute());
+
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new SingleFlightInterceptor(
+                Set.of("Catalog.getName"), freshFor, attributes, meterRegistry));
+        return (Catalog) factory.getProxy();
+    }
+
+    private void awaitCount(String result, int count) throws InterruptedException {
+        await(() -> meterRegistry.counter("usecase.read.coalescing",
+                "method", "Catalog.getName", "result", result).count() >= count);
+    }
+
+    private void awaitReads(int count) throws InterruptedException {
+        await(() -> target.reads.get() >= count);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static Throwable causeOf(Future<?> future) throws Exception {
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("expected the call to fail");
+    }
+
+    /**
+     * Stand-in use case whose reads can be held open until the test releases them.
+     */
+    static class Catalog {
+
+        final AtomicInteger reads = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile boolean failing;
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        public String getName(Long id) throws InterruptedException {
+            int call = reads.incrementAndGet();
+            entered.countDown();
+            gate.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (failing) {
+                throw new IllegalStateException("read failed on call " + call);
+            }
+            return "name-" + id + "#" + call;
+        }
+
+        public void rename() {
+        }
+    }
+}
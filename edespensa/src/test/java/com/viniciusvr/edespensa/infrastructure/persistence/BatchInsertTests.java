@@ -0,0 +1,73 @@
+package com.viniciusvr.edespensa.infrastructure.persistence;
+
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk pantry inserts go out as JDBC batches with pooled sequence ids, not one statement per row.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BatchInsertTests {
+
+    private static final int ROWS = 1_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PantryItemRepository pantryItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void saveAllPreparesOneStatementPerBatchAndStoresEveryRow() {
+        Product product = transactionTemplate.execute(status ->
+                productRepository.save(Product.createNew("Batch " + UUID.randomUUID(), "Outros", "un", null, false)));
+        List<PantryItem> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(PantryItem.createNew(product, 1.0, null, null, null));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<PantryItem> saved = transactionTemplate.execute(status -> pantryItemRepository.saveAll(items));
+
+            assertThat(saved).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+            assertThat(saved.stream().map(PantryItem::getId).distinct()).hasSize(ROWS);
+            // One insert and at most one sequence call per batch, where row by row would take a thousand
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * ROWS / BATCH_SIZE + 2);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        Integer stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pantry_items WHERE product_id = ?", Integer.class, product.getId());
+        assertThat(stored).isEqualTo(ROWS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.viniciusvr.edespensa.infrastructure.persistence.repository;
+
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A miss cached before a product existed does not hide the product once it is created.
+ */
+class CachingProductRepositoryTests {
+
+    private final ProductRepository delegate = mock(ProductRepository.class);
+    private final CachingProductRepository repository = new CachingProductRepository(
+            delegate, 100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+    @Test
+    void findsAProductCreatedAfterItsIdWasLookedUp() {
+        Product created = new Product(7L, "Arroz", "Grãos", "kg", null, true);
+        when(delegate.findById(7L)).thenReturn(Optional.empty());
+        assertThat(repository.findById(7L)).isEmpty();
+
+        when(delegate.save(any())).thenReturn(created);
+        when(delegate.findById(7L)).thenReturn(Optional.of(created));
+        repository.save(Product.createNew("Arroz", "Grãos", "kg", null, true));
+
+        assertThat(repository.findById(7L)).map(Product::getName).contains("Arroz");
+    }
+
+    @Test
+    void findsProductsCreatedInABatchAfterTheirIdsWereLookedUp() {
+        Product rice = new Product(7L, "Arroz", "Grãos", "kg", null, true);
+        Product beans = new Product(8L, "Feijão", "Grãos", "kg", null, true);
+        when(delegate.findAllById(anyList())).thenReturn(List.of());
+        assertThat(repository.findAllById(List.of(7L, 8L))).isEmpty();
+
+        when(delegate.saveAll(anyList())).thenReturn(List.of(rice, beans));
+        when(delegate.findAllById(anyList())).thenReturn(List.of(rice, beans));
+        repository.saveAll(List.of(
+                Product.createNew("Arroz", "Grãos", "kg", null, true),
+                Product.createNew("Feijão", "Grãos", "kg", null, true)));
+
+        assertThat(repository.findAllById(List.of(7L, 8L))).extracting(Product::getName)
+                .containsExactlyInAnyOrder("Arroz", "Feijão");
+    }
+}
@@ -0,0 +1,284 @@
+package com.viniciusvr.edespensa.infrastructure.persistence.repository;
+
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem;
+import com.viniciusvr.edespensa.domain.entity.ShoppingListItem.Priority;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import com.viniciusvr.edespensa.domain.repository.ShoppingListItemRepository;
+import com.viniciusvr.edespensa.infrastructure.persistence.mapper.ShoppingListItemMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Adds to a product's pending shopping list item merge into it: concurrent adds queue up on the
+ * product, and a pending item that got in first anyway turns the insert into a merge on retry.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class PendingShoppingItemMergeTests {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private ShoppingListItemRepository shoppingListRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShoppingListItemJpaRepository jpaRepository;
+
+    @Autowired
+    private ProductJpaRepository productJpaRepository;
+
+    @Autowired
+    private ShoppingListItemMapper mapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ChangeLogRecorder changeLog;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void insertsThePendingItemThenMergesIntoIt() {
+        Product product = newProduct();
+
+        ShoppingListItem first = transactionTemplate.execute(status ->
+                shoppingListRepository.mergePending(newItem(product, 2.0, Priority.LOW), null));
+        ShoppingListItem merged = transactionTemplate.execute(status ->
+                shoppingListRepository.mergePending(newItem(product, 3.0, Priority.HIGH), Priority.HIGH));
+        ShoppingListItem notLowered = transactionTemplate.execute(status ->
+                shoppingListRepository.mergePending(newItem(product, 1.0, Priority.LOW), Priority.LOW));
+
+        assertThat(first.getVersion()).isZero();
+        assertThat(merged.getId()).isEqualTo(first.getId());
+        assertThat(merged.getQuantity()).isEqualTo(5.0);
+        assertThat(merged.getPriority()).isEqualTo(Priority.HIGH);
+        assertThat(notLowered.getQuantity()).isEqualTo(6.0);
+        assertThat(notLowered.getPriority()).isEqualTo(Priority.HIGH);
+        assertThat(shoppingListRepository.findByProductId(product.getId())).hasSize(1);
+    }
+
+    @Test
+    void mergesIntoAPendingItemInsertedConcurrently() throws Exception {
+        Product product = newProduct();
+
+        ShoppingListItem winner = inOpenTransaction(
+                () -> shoppingListRepository.mergePending(newItem(product, 2.0, Priority.MEDIUM), null),
+                () -> shoppingListRepository.mergePending(newItem(product, 3.0, Priority.URGENT), Priority.URGENT))
+                .get(1);
+
+        ShoppingListItem pending = shoppingListRepository.findPendingByProductId(product.getId()).orElseThrow();
+        assertThat(winner.getId()).isEqualTo(pending.getId());
+        assertThat(pending.getQuantity()).isEqualTo(5.0);
+        assertThat(pending.getPriority()).isEqualTo(Priority.URGENT);
+        assertThat(shoppingListRepository.findByProductId(product.getId())).hasSize(1);
+    }
+
+    @Test
+    void skipsProductsWhosePendingItemWasInsertedConcurrently() throws Exception {
+        Product contended = newProduct();
+        Product free = newProduct();
+
+        List<ShoppingListItem> inserted = inOpenTransaction(
+                () -> shoppingListRepository.insertPendingIfAbsent(List.of(newItem(contended, 2.0, Priority.MEDIUM))),
+                () -> shoppingListRepository.insertPendingIfAbsent(List.of(
+                        newItem(contended, 3.0, Priority.MEDIUM), newItem(free, 1.0, Priority.MEDIUM))))
+                .get(1);
+
+        assertThat(inserted).extracting(item -> item.getProduct().getId()).containsExactly(free.getId());
+        assertThat(inserted.get(0).getId())
+                .isEqualTo(shoppingListRepository.findPendingByProductId(free.getId()).orElseThrow().getId());
+        assertThat(shoppingListRepository.findPendingByProductId(contended.getId()).orElseThrow().getQuantity())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void mergesAgainWhenThePendingItemGotInFirst() {
+        Product product = newProduct();
+        RacingJdbcTemplate racing = new RacingJdbcTemplate(dataSource, product);
+        ShoppingListItemRepository repository = repository(racing);
+
+        ShoppingListItem merged = transactionTemplate.execute(status ->
+                repository.mergePending(newItem(product, 3.0, Priority.URGENT), Priority.URGENT));
+
+        assertThat(racing.raced).isTrue();
+        ShoppingListItem pending = shoppingListRepository.findPendingByProductId(product.getId()).orElseThrow();
+        assertThat(merged.getId()).isEqualTo(pending.getId());
+        assertThat(merged.getVersion()).isEqualTo(1L);
+        assertThat(pending.getQuantity()).isEqualTo(5.0);
+        assertThat(pending.getPriority()).isEqualTo(Priority.URGENT);
+    }
+
+    @Test
+    void insertsTheRestOfTheBatchWhenAPendingItemGotInFirst() {
+        Product free = newProduct();
+        Product contended = newProduct();
+        Product afterFailure = newProduct();
+        RacingJdbcTemplate racing = new RacingJdbcTemplate(dataSource, contended);
+        ShoppingListItemRepository repository = repository(racing);
+
+        List<ShoppingListItem> inserted = transactionTemplate.execute(status -> repository.insertPendingIfAbsent(List.of(
+                newItem(free, 1.0, Priority.MEDIUM),
+                newItem(contended, 3.0, Priority.MEDIUM),
+                newItem(afterFailure, 4.0, Priority.MEDIUM))));
+
+        assertThat(racing.raced).isTrue();
+        assertThat(inserted).extracting(item -> item.getProduct().getId())
+                .containsExactly(free.getId(), afterFailure.getId());
+        assertThat(inserted).extracting(ShoppingListItem::getId).containsExactly(
+                shoppingListRepository.findPendingByProductId(free.getId()).orElseThrow().getId(),
+                shoppingListRepository.findPendingByProductId(afterFailure.getId()).orElseThrow().getId());
+        assertThat(shoppingListRepository.findPendingByProductId(contended.getId()).orElseThrow().getQuantity())
+                .isEqualTo(2.0);
+        assertThat(shoppingListRepository.findByProductId(free.getId())).hasSize(1);
+    }
+
+    private ShoppingListItemRepository repository(JdbcTemplate jdbcTemplate) {
+        return new ShoppingListItemRepositoryImpl(jpaRepository, productJpaRepository, mapper, entityManager,
+                jdbcTemplate, changeLog);
+    }
+
+    /**
+     * Runs {@code first} in a transaction held open until {@code second}, in its own transaction, is
+     * blocked on the row {@code first} wrote; then lets {@code first} commit.
+     * @return the results of both
+     */
+    private <T> List<T> inOpenTransaction(Supplier<T> first, Supplier<T> second) throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<T> firstResult = executor.submit(() -> transactionTemplate.execute(status -> {
+            T result = first.get();
+            written.countDown();
+            await(commit);
+            return result;
+        }));
+        assertThat(written.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+        Thread[] secondThread = new Thread[1];
+        Future<T> secondResult = executor.submit(() -> {
+            secondThread[0] = Thread.currentThread();
+            return transactionTemplate.execute(status -> second.get());
+        });
+        // It waits on the product the first transaction locked, then merges into what that committed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!isBlocked(secondThread[0])) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+        commit.countDown();
+
+        return List.of(firstResult.get(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                secondResult.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private static boolean isBlocked(Thread thread) {
+        return thread != null
+                && (thread.getState() == Thread.State.WAITING || thread.getState() == Thread.State.TIMED_WAITING);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Product newProduct() {
+        return transactionTemplate.execute(status ->
+                productRepository.save(Product.createNew("Merge " + UUID.randomUUID(), "Outros", "un", null, false)));
+    }
+
+    private static ShoppingListItem newItem(Product product, double quantity, Priority priority) {
+        return ShoppingListItem.createNew(product, quantity, priority, null);
+    }
+
+    /**
+     * Lets a pending item of one product in just before the first merge or insert batch runs, in the
+     * same transaction, and fails that statement the way the unique index would.
+     */
+    private static final class RacingJdbcTemplate extends JdbcTemplate {
+
+        private final Product contended;
+        private boolean raced;
+
+        private RacingJdbcTemplate(DataSource dataSource, Product contended) {
+            super(dataSource);
+            this.contended = contended;
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("MERGE") && !raced) {
+                insertContendedItem();
+                throw new DuplicateKeyException("pending item of product " + contended.getId() + " got in first");
+            }
+            return super.update(sql, args);
+        }
+
+        /**
+         * Runs the items before the contended one and stops at it, as a driver that halts on the first failure.
+         */
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            List<T> items = List.copyOf(batchArgs);
+            int contendedAt = 0;
+            while (!((ShoppingListItem) items.get(contendedAt)).getProduct().getId().equals(contended.getId())) contendedAt++;
+            int[] counts = new int[contendedAt + 1];
+            if (contendedAt > 0) {
+                System.arraycopy(super.batchUpdate(sql, items.subList(0, contendedAt), contendedAt, pss)[0],
+                        0, counts, 0, contendedAt);
+            }
+            counts[contendedAt] = Statement.EXECUTE_FAILED;
+            insertContendedItem();
+            throw new DuplicateKeyException("pending item of product " + contended.getId() + " got in first",
+                    new BatchUpdateException("duplicate key", counts));
+        }
+
+        private void insertContendedItem() {
+            raced = true;
+            super.update("INSERT INTO shopping_list_items "
+                            + "(id, product_id, quantity, priority, status, added_at, auto_added, version) "
+                            + "VALUES (NEXT VALUE FOR shopping_list_items_seq, ?, 2.0, 'MEDIUM', 'PENDING', ?, FALSE, 0)",
+                    contended.getId(), LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.viniciusvr.edespensa.presentation.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniciusvr.edespensa.application.usecase.pantry.PantryManagementUseCase;
+import com.viniciusvr.edespensa.application.usecase.product.ProductManagementUseCase;
+import com.viniciusvr.edespensa.domain.entity.PantryItem;
+import com.viniciusvr.edespensa.domain.entity.Product;
+import com.viniciusvr.edespensa.domain.repository.PantryItemRepository;
+import com.viniciusvr.edespensa.domain.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination over the /page endpoints: walking every page by its cursor returns each row
+ * exactly once, in sort order, across null and duplicate sort keys.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class CursorPaginationTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PantryItemRepository pantryItemRepository;
+
+    @Autowired
+    private ProductManagementUseCase productUseCase;
+
+    @Autowired
+    private PantryManagementUseCase pantryUseCase;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private MockMvc mockMvc;
+    private String location;
+    private List<PantryItem> items;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        location = "Page " + UUID.randomUUID();
+        items = transactionTemplate.execute(status -> {
+            Product product = productRepository.save(
+                    Product.createNew("Page " + UUID.randomUUID(), "Outros", "un", null, true));
+            List<PantryItem> created = new ArrayList<>();
+            // Repeated dates and quantities, and a run of undated items, so page boundaries fall on ties and nulls
+            LocalDate[] dates = {TODAY.plusDays(3), null, TODAY.plusDays(1), TODAY.plusDays(3), null,
+                    TODAY.plusDays(2), TODAY.plusDays(3), null};
+            for (int i = 0; i < dates.length; i++) {
+                created.add(PantryItem.createNew(product, (double) (i % 2 + 1), dates[i], location, null));
+            }
+            return pantryItemRepository.saveAll(created);
+        });
+    }
+
+    @Test
+    void walksEveryItemOnceById() throws Exception {
+        List<Long> expected = items.stream().map(PantryItem::getId).sorted().toList();
+
+        assertThat(walkPantry("ID", "ASC", 3)).containsExactlyElementsOf(expected);
+        assertThat(walkPantry("ID", "DESC", 3)).containsExactlyElementsOf(expected.reversed());
+    }
+
+    @Test
+    void ordersUndatedItemsLastInBothDirections() throws Exception {
+        Comparator<PantryItem> byId = Comparator.comparing(PantryItem::getId);
+
+        List<Long> ascending = items.stream()
+                .sorted(Comparator.comparing(PantryItem::getExpirationDate,
+                        Comparator.nullsLast(Comparator.<LocalDate>naturalOrder())).thenComparing(byId))
+                .map(PantryItem::getId)
+                .toList();
+        List<Long> descending = items.stream()
+                .sorted(Comparator.comparing(PantryItem::getExpirationDate,
+                        Comparator.nullsLast(Comparator.<LocalDate>reverseOrder())).thenComparing(byId.reversed()))
+                .map(PantryItem::getId)
+                .toList();
+
+        // Limits of 1 and 2 put boundaries inside the dated run, on the dated-to-undated step and inside the nulls
+        for (int limit = 1; limit <= 3; limit++) {
+            assertThat(walkPantry("EXPIRATION_DATE", "ASC", limit)).containsExactlyElementsOf(ascending);
+            assertThat(walkPantry("EXPIRATION_DATE", "DESC", limit)).containsExactlyElementsOf(descending);
+        }
+    }
+
+    @Test
+    void breaksTiesOnDuplicateSortKeysById() throws Exception {
+        List<Long> expected = items.stream()
+                .sorted(Comparator.comparing(PantryItem::getQuantity).thenComparing(PantryItem::getId))
+                .map(PantryItem::getId)
+                .toList();
+
+        assertThat(walkPantry("QUANTITY", "ASC", 2)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void filtersLowStockByProductTotalAndMinimum() throws Exception {
+        // Each item of the first product is at the global threshold, but their total is above it;
+        // the second product's single item is above the threshold, but under the product's own minimum
+        Product stocked = productUseCase.createProduct("Page " + UUID.randomUUID(), "Outros", "un", null, true, null, null);
+        pantryUseCase.addToPantry(stocked.getId(), 2.0, null, location, null);
+        pantryUseCase.addToPantry(stocked.getId(), 2.0, null, location, null);
+        Product product = productUseCase.createProduct("Page " + UUID.randomUUID(), "Outros", "un", null, true, 5.0, null);
+        PantryItem low = pantryUseCase.addToPantry(product.getId(), 3.0, null, location, null);
+
+        String body = mockMvc.perform(get("/api/pantry/page")
+                        .param("location", location)
+                        .param("lowStock", "true"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(body).get("items").forEach(item -> ids.add(item.get("id").asLong()));
+
+        assertThat(ids).containsExactly(low.getId());
+    }
+
+    @Test
+    void rejectsMalformedCursors() throws Exception {
+        String notBase64 = "!!!";
+        String notAnId = encode("x:");
+        String badDate = encode(items.get(0).getId() + ":vnot-a-date");
+
+        for (String cursor : List.of(notBase64, notAnId, badDate)) {
+            mockMvc.perform(pantryPage("EXPIRATION_DATE", "ASC", 2).param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/api/products/page").param("cursor", notBase64))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/shopping-list/page").param("cursor", notAnId))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> walkPantry(String sort, String direction, int limit) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = pantryPage(sort, direction, limit);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(limit);
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return ids;
+    }
+
+    private MockHttpServletRequestBuilder pantryPage(String sort, String direction, int limit) {
+        return get("/api/pantry/page")
+                .param("location", location)
+                .param("sort", sort)
+                .param("direction", direction)
+                .param("limit", String.valueOf(limit));
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
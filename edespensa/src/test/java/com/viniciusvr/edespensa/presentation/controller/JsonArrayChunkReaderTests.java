@@ -0,0 +1,142 @@
+package com.viniciusvr.edespensa.presentation.controller;
+
+import com.viniciusvr.edespensa.presentation.dto.request.BatchConsumeRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Batch request bodies are read in chunks of {@link JsonArrayChunkReader#CHUNK_SIZE} elements, and
+ * malformed or invalid bodies are rejected as bad requests.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class JsonArrayChunkReaderTests {
+
+    private static final int CHUNK_SIZE = JsonArrayChunkReader.CHUNK_SIZE;
+
+    @Autowired
+    private JsonArrayChunkReader chunkReader;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void splitsArraysAtTheChunkBoundary() {
+        assertThat(chunkSizes(ids(CHUNK_SIZE - 1))).containsExactly(CHUNK_SIZE - 1);
+        assertThat(chunkSizes(ids(CHUNK_SIZE))).containsExactly(CHUNK_SIZE);
+        assertThat(chunkSizes(ids(CHUNK_SIZE + 1))).containsExactly(CHUNK_SIZE, 1);
+        assertThat(chunkSizes(ids(2 * CHUNK_SIZE))).containsExactly(CHUNK_SIZE, CHUNK_SIZE);
+    }
+
+    @Test
+    void keepsElementOrderAcrossChunks() {
+        List<Long> read = new ArrayList<>();
+        chunkReader.chunks(body(ids(CHUNK_SIZE + 3)), Long.class).forEachRemaining(read::addAll);
+
+        assertThat(read).containsExactlyElementsOf(LongStream.rangeClosed(1, CHUNK_SIZE + 3).boxed().toList());
+    }
+
+    @Test
+    void readsTheArrayFieldOfAnObjectBody() {
+        Iterator<List<Long>> chunks = chunkReader.nonEmptyChunks(
+                body("{\"other\": {\"x\": [1]}, \"pantryItemIds\": " + ids(3) + ", \"after\": 1}"),
+                "pantryItemIds", Long.class, Function.identity(), "empty");
+
+        assertThat(chunks.next()).containsExactly(1L, 2L, 3L);
+        assertThat(chunks.hasNext()).isFalse();
+    }
+
+    @Test
+    void yieldsNoChunksForAnEmptyArray() {
+        assertThat(chunkReader.chunks(body("[]"), Long.class).hasNext()).isFalse();
+        assertThatThrownBy(() -> chunkReader.nonEmptyChunks(
+                body("{\"items\": []}"), "items", Long.class, Function.identity(), "At least one item is required").hasNext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At least one item is required");
+    }
+
+    @Test
+    void rejectsBodiesThatAreNotTheExpectedArray() {
+        assertThatThrownBy(() -> chunkReader.chunks(body("{\"ids\": [1]}"), Long.class).hasNext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Request body must be a JSON array");
+        assertThatThrownBy(() -> chunkReader.nonEmptyChunks(
+                body("{\"other\": [1]}"), "items", Long.class, Function.identity(), "empty").hasNext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Request body must contain an array field 'items'");
+        assertThatThrownBy(() -> chunkReader.chunks(body("[1, 2,"), Long.class).hasNext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Malformed request body");
+        assertThatThrownBy(() -> chunkReader.chunks(body("[1, \"two\"]"), Long.class).hasNext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Malformed request body");
+    }
+
+    @Test
+    void rejectsInvalidElementsWithTheirPosition() {
+        assertThatThrownBy(() -> chunkReader.nonEmptyChunks(
+                body("{\"items\": [{\"pantryItemId\": 1, \"quantity\": 1}, {\"pantryItemId\": 2, \"quantity\": -1}]}"),
+                "items", BatchConsumeRequest.ConsumeItem.class, Function.identity(), "empty").hasNext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("items[1].quantity: Quantity must be positive");
+        assertThatThrownBy(() -> chunkReader.chunks(body("[1, null]"), Long.class).hasNext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("[1] must not be null");
+    }
+
+    @Test
+    void answersBadRequestForMalformedBatchBodies() throws Exception {
+        for (String body : List.of("[1, 2", "{\"ids\": [1]}", "[null]", "not json")) {
+            mockMvc.perform(post("/api/shopping-list/purchased-batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(post("/api/pantry/consume-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\": [{\"pantryItemId\": 1}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Integer> chunkSizes(String json) {
+        List<Integer> sizes = new ArrayList<>();
+        chunkReader.chunks(body(json), Long.class).forEachRemaining(chunk -> sizes.add(chunk.size()));
+        return sizes;
+    }
+
+    private static String ids(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(String::valueOf)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,176 @@
+package com.viniciusvr.edespensa.presentation.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto;
+import com.viniciusvr.edespensa.application.dto.ChangeEventDto.Type;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A subscriber that falls behind is disconnected instead of buffered for without limit, and never
+ * holds up the publisher or the other subscribers.
+ */
+class ChangeEventBroadcasterTests {
+
+    private static final int BUFFER_SIZE = 4;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ClientEmitter> clients = new ArrayList<>();
+    private ChangeEventBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(ClientEmitter::unblock);
+        broadcaster.destroy();
+    }
+
+    @Test
+    void dropsASubscriberWhoseQueueOutgrowsTheBuffer() throws Exception {
+        broadcaster = broadcaster(Duration.ofHours(1));
+        ClientEmitter slow = subscribe(new ClientEmitter(true));
+        await(() -> slow.sending);
+
+        broadcaster.publish(events(BUFFER_SIZE));
+        assertThat(dropped()).isZero();
+        broadcaster.publish(events(1));
+
+        assertThat(dropped()).isEqualTo(1);
+        assertThat(subscribers()).isZero();
+        await(() -> slow.completed);
+    }
+
+    @Test
+    void takesABurstLargerThanTheBufferOnAnEmptyQueue() throws Exception {
+        broadcaster = broadcaster(Duration.ofHours(1));
+        ClientEmitter client = subscribe(new ClientEmitter(true));
+        await(() -> client.sending);
+
+        broadcaster.publish(events(3 * BUFFER_SIZE));
+        client.unblock();
+
+        await(() -> client.received().contains("id:" + 3 * BUFFER_SIZE + "\n"));
+        assertThat(dropped()).isZero();
+        assertThat(subscribers()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsASubscriberThatMadeNoProgressBetweenHeartbeats() throws Exception {
+        broadcaster = broadcaster(Duration.ofMillis(20));
+        subscribe(new ClientEmitter(true));
+
+        // Far less than the buffer holds: only the missed heartbeat can drop the subscriber
+        broadcaster.publish(events(1));
+
+        await(() -> dropped() == 1);
+        assertThat(subscribers()).isZero();
+    }
+
+    @Test
+    void keepsServingOtherSubscribersWhileOneIsDropped() throws Exception {
+        broadcaster = broadcaster(Duration.ofHours(1));
+        ClientEmitter slow = subscribe(new ClientEmitter(true));
+        ClientEmitter fast = subscribe(new ClientEmitter(false));
+        await(() -> slow.sending);
+
+        for (int id = 1; id <= 3 * BUFFER_SIZE; id++) {
+            broadcaster.publish(events(1));
+            String eventId = "id:" + id + "\n";
+            await(() -> fast.received().contains(eventId));
+        }
+
+        assertThat(dropped()).isEqualTo(1);
+        assertThat(subscribers()).isEqualTo(1);
+        assertThat(fast.completed).isFalse();
+    }
+
+    private ChangeEventBroadcaster broadcaster(Duration heartbeatInterval) {
+        return new ChangeEventBroadcaster(BUFFER_SIZE, heartbeatInterval, new ObjectMapper(), meterRegistry,
+                clients::getLast);
+    }
+
+    private ClientEmitter subscribe(ClientEmitter client) {
+        clients.add(client);
+        assertThat(broadcaster.subscribe()).isSameAs(client);
+        return client;
+    }
+
+    private double dropped() {
+        return meterRegistry.counter("events.subscribers.dropped").count();
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("events.subscribers").gauge().value();
+    }
+
+    private static List<ChangeEventDto> events(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new ChangeEventDto(Type.ITEM_CONSUMED, id, 1L, "Arroz", 1.0, null))
+                .toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Client connection whose writes can be held, like a client that stopped reading.
+     */
+    private static final class ClientEmitter extends SseEmitter {
+
+        private final CountDownLatch writable;
+        private final StringBuilder received = new StringBuilder();
+        private volatile boolean sending;
+        private volatile boolean completed;
+
+        private ClientEmitter(boolean blocked) {
+            super(0L);
+            this.writable = new CountDownLatch(blocked ? 1 : 0);
+        }
+
+        void unblock() {
+            writable.countDown();
+        }
+
+        synchronized String received() {
+            return received.toString();
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sending = true;
+            try {
+                writable.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            synchronized (this) {
+                items.forEach(item -> received.append(item.getData()));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -61,7 +61,7 @@ export const Dashboard: React.FC = () => {
 
     return (
       <AlertCard
-        key={item.pantryItemId}
+        key={item.pantryItemId ?? `${item.alertType}-${item.productName}`}
         title={item.productName}
         subtitle={`${item.quantity} ${item.unit}`}
         badge={{ text: badgeText, variant: badgeVariant }}
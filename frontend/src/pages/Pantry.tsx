@@ -110,7 +110,7 @@ export const Pantry: React.FC = () => {
     if (item.isExpiringSoon) {
       return <Badge variant="warning">Vence em breve</Badge>;
     }
-    if (item.isLowStock) {
+    if (item.isBelowLowStockThreshold) {
       return <Badge variant="info">Estoque baixo</Badge>;
     }
     return <Badge variant="success">OK</Badge>;
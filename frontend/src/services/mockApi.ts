@@ -138,13 +138,13 @@ const calculatePantryFlags = (item: PantryItem): PantryItem => {
     ? Math.ceil((expirationDate.getTime() - today.getTime()) / (1000 * 60 * 60 * 24))
     : null;
   const isExpiringSoon = daysUntilExpiration !== null && daysUntilExpiration <= 7 && daysUntilExpiration >= 0;
-  const isLowStock = item.quantity <= 2;
+  const isBelowLowStockThreshold = item.quantity <= 2;
 
   return {
     ...item,
     isExpired,
     isExpiringSoon,
-    isLowStock,
+    isBelowLowStockThreshold,
   };
 };
 
@@ -194,7 +194,7 @@ export const mockPantryApi = {
       notes: data.notes || '',
       isExpired: false,
       isExpiringSoon: false,
-      isLowStock: false,
+      isBelowLowStockThreshold: false,
     };
     
     pantryItems.push(newItem);
@@ -239,7 +239,7 @@ export const mockPantryApi = {
       notes: data.notes || '',
       isExpired: false,
       isExpiringSoon: false,
-      isLowStock: false,
+      isBelowLowStockThreshold: false,
     };
     
     pantryItems.push(newItem);
@@ -479,7 +479,7 @@ export const mockDashboardApi = {
       if (updated.isExpiringSoon && !updated.isExpired) {
         expiringSoon.push({ ...alertItem, alertType: 'EXPIRING_SOON' });
       }
-      if (updated.isLowStock) {
+      if (updated.isBelowLowStockThreshold) {
         lowStock.push({ ...alertItem, alertType: 'LOW_STOCK' });
       }
     });
@@ -505,7 +505,7 @@ export const mockDashboardApi = {
     
     const alertItems = pantryItems.filter((item) => {
       const updated = calculatePantryFlags(item);
-      return updated.isExpired || updated.isExpiringSoon || updated.isLowStock;
+      return updated.isExpired || updated.isExpiringSoon || updated.isBelowLowStockThreshold;
     });
     
     let nextId = Math.max(...items.map((i) => i.id), 0) + 1;
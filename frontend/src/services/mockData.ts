@@ -95,7 +95,7 @@ export const mockPantryItems: PantryItem[] = [
     notes: '',
     isExpired: false,
     isExpiringSoon: false,
-    isLowStock: false,
+    isBelowLowStockThreshold: false,
   },
   {
     id: 2,
@@ -107,7 +107,7 @@ export const mockPantryItems: PantryItem[] = [
     notes: '',
     isExpired: false,
     isExpiringSoon: false,
-    isLowStock: true,
+    isBelowLowStockThreshold: true,
   },
   {
     id: 3,
@@ -119,7 +119,7 @@ export const mockPantryItems: PantryItem[] = [
     notes: '',
     isExpired: false,
     isExpiringSoon: true,
-    isLowStock: false,
+    isBelowLowStockThreshold: false,
   },
   {
     id: 4,
@@ -131,7 +131,7 @@ export const mockPantryItems: PantryItem[] = [
     notes: '',
     isExpired: true,
     isExpiringSoon: false,
-    isLowStock: false,
+    isBelowLowStockThreshold: false,
   },
   {
     id: 5,
@@ -143,7 +143,7 @@ export const mockPantryItems: PantryItem[] = [
     notes: '',
     isExpired: false,
     isExpiringSoon: true,
-    isLowStock: true,
+    isBelowLowStockThreshold: true,
   },
   {
     id: 6,
@@ -155,7 +155,7 @@ export const mockPantryItems: PantryItem[] = [
     notes: '',
     isExpired: false,
     isExpiringSoon: false,
-    isLowStock: false,
+    isBelowLowStockThreshold: false,
   },
 ];
 
@@ -218,7 +218,7 @@ const generateAlertItems = (): DashboardAlerts => {
     if (item.isExpiringSoon && !item.isExpired) {
       expiringSoon.push({ ...alertItem, alertType: 'EXPIRING_SOON' });
     }
-    if (item.isLowStock) {
+    if (item.isBelowLowStockThreshold) {
       lowStock.push({ ...alertItem, alertType: 'LOW_STOCK' });
     }
   });
@@ -27,7 +27,7 @@ export interface PantryItem {
   notes: string;
   isExpired: boolean;
   isExpiringSoon: boolean;
-  isLowStock: boolean;
+  isBelowLowStockThreshold: boolean;
 }
 
 export interface PantryItemRequest {
@@ -81,7 +81,7 @@ export interface ShoppingListItemRequest {
 
 // Dashboard types
 export interface AlertItem {
-  pantryItemId: number;
+  pantryItemId: number | null;
   productName: string;
   quantity: number;
   unit: string;